@@ -0,0 +1,110 @@
+package com.bkseducate.securityapp.benchmark;
+
+import com.bkseducate.securityapp.infrastructure.security.AccessTokenDenylist;
+import com.bkseducate.securityapp.infrastructure.security.AuthorityRegistry;
+import com.bkseducate.securityapp.infrastructure.security.JwtAuthenticationFilter;
+import com.bkseducate.securityapp.infrastructure.security.JwtKeyRing;
+import com.bkseducate.securityapp.infrastructure.security.JwtTokenService;
+import com.bkseducate.securityapp.infrastructure.security.TokenPreValidator;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.bkseducate.securityapp.benchmark.BenchmarkFixtures.*;
+
+/**
+ * Benchmark del filtro JWT completo (doFilter → doFilterInternal) con requests simulados
+ *
+ * - validToken: token válido; pre-validación, verificación, denylist y authorities
+ * - malformedToken: rechazado por la pre-validación (sin criptografía)
+ * - publicEndpoint: ruta de security.public-endpoints (el filtro no se ejecuta)
+ * - noToken: request sin header Authorization
+ *
+ * Ejecutar con -prof gc para ver la tasa de asignación por request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class AuthenticationFilterBenchmark {
+    
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+    
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest validRequest;
+    private MockHttpServletRequest malformedRequest;
+    private MockHttpServletRequest publicRequest;
+    private MockHttpServletRequest anonymousRequest;
+    private MockHttpServletResponse response;
+    
+    @Setup
+    public void setup() {
+        AuthorityRegistry registry = authorityRegistry();
+        JwtTokenService tokenService = TokenServiceBenchmark.tokenService();
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("security.public-endpoints[0]", "/auth/login")
+            .withProperty("security.public-endpoints[1]", "/auth/register")
+            .withProperty("security.public-endpoints[2]", "/auth/refresh")
+            .withProperty("security.public-endpoints[3]", "/actuator/health")
+            .withProperty("security.public-endpoints[4]", "/.well-known/jwks.json");
+        filter = new JwtAuthenticationFilter(
+            tokenService,
+            registry,
+            new TokenPreValidator(tokenService, JwtKeyRing.disabled()),
+            new AccessTokenDenylist(1 << 16),
+            environment);
+        
+        String token = tokenService.generateAccessToken(UUID.randomUUID(), "user@example.com", Set.of(USER, ADMIN));
+        validRequest = request("GET", "/auth/me", "Bearer " + token);
+        malformedRequest = request("GET", "/auth/me", "Bearer abc.def.ghi");
+        publicRequest = request("POST", "/auth/login", null);
+        anonymousRequest = request("GET", "/auth/me", null);
+        response = new MockHttpServletResponse();
+    }
+    
+    @Benchmark
+    public Authentication validToken() throws Exception {
+        return filter(validRequest);
+    }
+    
+    @Benchmark
+    public Authentication malformedToken() throws Exception {
+        return filter(malformedRequest);
+    }
+    
+    @Benchmark
+    public Authentication publicEndpoint() throws Exception {
+        return filter(publicRequest);
+    }
+    
+    @Benchmark
+    public Authentication noToken() throws Exception {
+        return filter(anonymousRequest);
+    }
+    
+    private Authentication filter(MockHttpServletRequest request) throws Exception {
+        try {
+            filter.doFilter(request, response, NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+    
+    private static MockHttpServletRequest request(String method, String uri, String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        return request;
+    }
+}
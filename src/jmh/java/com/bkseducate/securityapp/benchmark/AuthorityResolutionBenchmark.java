@@ -0,0 +1,55 @@
+package com.bkseducate.securityapp.benchmark;
+
+import com.bkseducate.securityapp.domain.model.Role;
+import com.bkseducate.securityapp.infrastructure.security.AuthorityRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.bkseducate.securityapp.benchmark.BenchmarkFixtures.authorityRegistry;
+
+/**
+ * Benchmark de la conversión del claim "roles" a GrantedAuthority
+ *
+ * - legacyReconstruct: Role.reconstruct con UUID aleatorio + SimpleGrantedAuthority por request
+ * - registryLookup: búsqueda en el AuthorityRegistry (sin asignaciones en estado estable)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class AuthorityResolutionBenchmark {
+    
+    private final Set<String> roleClaims = Set.of("ROLE_USER", "ROLE_ADMIN");
+    private AuthorityRegistry registry;
+    
+    @Setup
+    public void setup() {
+        registry = authorityRegistry();
+    }
+    
+    @Benchmark
+    public List<SimpleGrantedAuthority> legacyReconstruct() {
+        Set<Role> roles = roleClaims.stream()
+            .map(authority -> Role.reconstruct(
+                UUID.randomUUID(),
+                authority.replace("ROLE_", "").toUpperCase(),
+                authority))
+            .collect(Collectors.toSet());
+        return roles.stream()
+            .map(role -> new SimpleGrantedAuthority(role.getAuthority()))
+            .collect(Collectors.toList());
+    }
+    
+    @Benchmark
+    public List<GrantedAuthority> registryLookup() {
+        return registry.authoritiesFor(roleClaims);
+    }
+}
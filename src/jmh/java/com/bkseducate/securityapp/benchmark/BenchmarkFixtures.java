@@ -0,0 +1,35 @@
+package com.bkseducate.securityapp.benchmark;
+
+import com.bkseducate.securityapp.domain.model.Role;
+import com.bkseducate.securityapp.infrastructure.security.AuthorityRegistry;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Datos y componentes compartidos por los benchmarks
+ */
+final class BenchmarkFixtures {
+    
+    static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    static final long ACCESS_TOKEN_EXPIRATION = 900_000L;
+    
+    static final Role USER = Role.reconstruct(
+        UUID.fromString("550e8400-e29b-41d4-a716-446655440001"), "USER", "ROLE_USER");
+    static final Role ADMIN = Role.reconstruct(
+        UUID.fromString("550e8400-e29b-41d4-a716-446655440002"), "ADMIN", "ROLE_ADMIN");
+    static final Role MODERATOR = Role.reconstruct(
+        UUID.fromString("550e8400-e29b-41d4-a716-446655440003"), "MODERATOR", "ROLE_MODERATOR");
+    
+    private BenchmarkFixtures() {
+    }
+    
+    /**
+     * Registro de authorities cargado con el catálogo de roles por defecto
+     */
+    static AuthorityRegistry authorityRegistry() {
+        AuthorityRegistry registry = new AuthorityRegistry(null);
+        registry.load(List.of(USER, ADMIN, MODERATOR));
+        return registry;
+    }
+}
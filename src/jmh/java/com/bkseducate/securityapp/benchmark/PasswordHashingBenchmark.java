@@ -0,0 +1,56 @@
+package com.bkseducate.securityapp.benchmark;
+
+import com.bkseducate.securityapp.infrastructure.security.PasswordEncoderConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de los algoritmos de hash de contraseñas con los parámetros por defecto
+ * de application.yml (BCrypt con fuerza fija 10 en lugar de calibrada)
+ *
+ * - encode: hash de una contraseña nueva (registro, migración en login)
+ * - matches: verificación de una contraseña contra un hash existente (login)
+ *
+ * Con -prof gc, gc.alloc.rate.norm es la memoria reservada por hash: en Argon2 incluye
+ * el bloque de memory-kib que cada hash en curso mantiene vivo.
+ * Para medir con varios hilos concurrentes: -t &lt;hilos&gt;
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Threads(1)
+@State(Scope.Benchmark)
+public class PasswordHashingBenchmark {
+    
+    private static final String PASSWORD = "correct-horse-battery-staple";
+    
+    @Param({"bcrypt", "pbkdf2", "argon2"})
+    public String algorithm;
+    
+    private PasswordEncoder encoder;
+    private String hash;
+    
+    @Setup
+    public void setup() {
+        encoder = new PasswordEncoderConfig().passwordEncoder(
+            algorithm, 10, Duration.ofMillis(250), 10, 14, 310_000, 19_456, 2, 1);
+        hash = encoder.encode(PASSWORD);
+        if (!encoder.matches(PASSWORD, hash)) {
+            throw new IllegalStateException("El hash no verifica la contraseña: " + hash);
+        }
+    }
+    
+    @Benchmark
+    public String encode() {
+        return encoder.encode(PASSWORD);
+    }
+    
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, hash);
+    }
+}
@@ -0,0 +1,67 @@
+package com.bkseducate.securityapp.benchmark;
+
+import com.bkseducate.securityapp.domain.model.Role;
+import com.bkseducate.securityapp.domain.model.VerifiedAccessToken;
+import com.bkseducate.securityapp.infrastructure.security.JwtKeyRing;
+import com.bkseducate.securityapp.infrastructure.security.JwtTokenService;
+import com.bkseducate.securityapp.infrastructure.security.VerifiedTokenCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.bkseducate.securityapp.benchmark.BenchmarkFixtures.*;
+
+/**
+ * Benchmark del formato de claims del access token
+ *
+ * - standard: email + lista de authorities
+ * - compact: versión del catálogo + máscara de roles, sin email
+ *
+ * Se parametriza por número de roles del usuario (1 = usuario normal, 3 = administrador).
+ * El tamaño de cada token se imprime en el setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class TokenFormatBenchmark {
+    
+    @Param({"1", "3"})
+    public int roleCount;
+    
+    private JwtTokenService tokenService;
+    private String standardToken;
+    private String compactToken;
+    
+    @Setup
+    public void setup() {
+        Set<Role> roles = roleCount == 1 ? Set.of(USER) : Set.of(USER, ADMIN, MODERATOR);
+        UUID userId = UUID.randomUUID();
+        
+        tokenService = new JwtTokenService(
+            SECRET, ACCESS_TOKEN_EXPIRATION, VerifiedTokenCache.disabled(), authorityRegistry(),
+            JwtKeyRing.disabled(), true, false);
+        JwtTokenService compactTokenService = new JwtTokenService(
+            SECRET, ACCESS_TOKEN_EXPIRATION, VerifiedTokenCache.disabled(), authorityRegistry(),
+            JwtKeyRing.disabled(), true, true);
+        
+        standardToken = tokenService.generateAccessToken(userId, "firstname.lastname@example.com", roles);
+        compactToken = compactTokenService.generateAccessToken(userId, "firstname.lastname@example.com", roles);
+        System.out.printf("%n[roles=%d] standard=%d bytes, compact=%d bytes%n",
+            roleCount, standardToken.length(), compactToken.length());
+    }
+    
+    @Benchmark
+    public VerifiedAccessToken standard() {
+        return tokenService.verifyAccessToken(standardToken);
+    }
+    
+    @Benchmark
+    public VerifiedAccessToken compact() {
+        // El verificador acepta ambos formatos: se usa el mismo servicio
+        return tokenService.verifyAccessToken(compactToken);
+    }
+}
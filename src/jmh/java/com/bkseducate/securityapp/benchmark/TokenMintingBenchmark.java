@@ -0,0 +1,88 @@
+package com.bkseducate.securityapp.benchmark;
+
+import com.bkseducate.securityapp.infrastructure.security.HmacAccessTokenMinter;
+import com.bkseducate.securityapp.infrastructure.security.JwtKeyRing;
+import com.bkseducate.securityapp.infrastructure.security.JwtTokenService;
+import com.bkseducate.securityapp.infrastructure.security.VerifiedTokenCache;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.bkseducate.securityapp.benchmark.BenchmarkFixtures.*;
+
+/**
+ * Benchmark de emisión de access tokens HMAC (tokens por segundo y por hilo)
+ *
+ * - jjwtBuilder: builder de jjwt + Jackson + Mac nuevo por token (ruta anterior)
+ * - minter: HmacAccessTokenMinter (header pre-serializado, JSON directo, pool de Mac)
+ * - generateAccessToken: ruta completa del servicio (incluye jti aleatorio y roles)
+ *
+ * Se ejecuta con un solo hilo: el resultado equivale a tokens/s por núcleo.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@State(Scope.Benchmark)
+public class TokenMintingBenchmark {
+    
+    private static final String EMAIL = "firstname.lastname@example.com";
+    private static final List<String> ROLES = List.of("ROLE_USER", "ROLE_ADMIN");
+    private static final String TOKEN_ID = "q2Xb4kq0S3W1c9n5YvJx8A";
+    
+    private SecretKey secretKey;
+    private HmacAccessTokenMinter minter;
+    private JwtTokenService tokenService;
+    private String subject;
+    
+    @Setup
+    public void setup() {
+        secretKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        minter = new HmacAccessTokenMinter(secretKey);
+        tokenService = new JwtTokenService(
+            SECRET, ACCESS_TOKEN_EXPIRATION, VerifiedTokenCache.disabled(), authorityRegistry(),
+            JwtKeyRing.disabled(), true, false);
+        subject = UUID.randomUUID().toString();
+    }
+    
+    @Benchmark
+    public String jjwtBuilder() {
+        return jjwt(System.currentTimeMillis());
+    }
+    
+    @Benchmark
+    public String minter() {
+        return mint(System.currentTimeMillis());
+    }
+    
+    @Benchmark
+    public String generateAccessToken() {
+        return tokenService.generateAccessToken(UUID.randomUUID(), EMAIL, Set.of(USER, ADMIN));
+    }
+    
+    private String jjwt(long nowMillis) {
+        return Jwts.builder()
+            .id(TOKEN_ID)
+            .subject(subject)
+            .claim("email", EMAIL)
+            .claim("roles", ROLES)
+            .issuedAt(new Date(nowMillis))
+            .expiration(new Date(nowMillis + ACCESS_TOKEN_EXPIRATION))
+            .signWith(secretKey)
+            .compact();
+    }
+    
+    private String mint(long nowMillis) {
+        return minter.mintStandard(TOKEN_ID, subject, EMAIL, ROLES,
+            nowMillis / 1000, (nowMillis + ACCESS_TOKEN_EXPIRATION) / 1000);
+    }
+}
@@ -0,0 +1,59 @@
+package com.bkseducate.securityapp.benchmark;
+
+import com.bkseducate.securityapp.domain.model.Role;
+import com.bkseducate.securityapp.infrastructure.security.JwtKeyRing;
+import com.bkseducate.securityapp.infrastructure.security.JwtTokenService;
+import com.bkseducate.securityapp.infrastructure.security.VerifiedTokenCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.bkseducate.securityapp.benchmark.BenchmarkFixtures.*;
+
+/**
+ * Benchmark de los métodos públicos de JwtTokenService (firma HMAC, sin caché)
+ *
+ * Ejecutar con -prof gc para ver la tasa de asignación (gc.alloc.rate.norm = bytes por operación).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class TokenServiceBenchmark {
+    
+    private final Set<Role> roles = Set.of(USER, ADMIN);
+    private JwtTokenService tokenService;
+    private UUID userId;
+    private String token;
+    
+    @Setup
+    public void setup() {
+        tokenService = tokenService();
+        userId = UUID.randomUUID();
+        token = tokenService.generateAccessToken(userId, "user@example.com", roles);
+    }
+    
+    @Benchmark
+    public String generateAccessToken() {
+        return tokenService.generateAccessToken(userId, "user@example.com", roles);
+    }
+    
+    @Benchmark
+    public UUID validateAccessToken() {
+        return tokenService.validateAccessToken(token);
+    }
+    
+    @Benchmark
+    public Set<Role> extractRoles() {
+        return tokenService.extractRoles(token);
+    }
+    
+    static JwtTokenService tokenService() {
+        return new JwtTokenService(
+            SECRET, ACCESS_TOKEN_EXPIRATION, VerifiedTokenCache.disabled(), authorityRegistry(),
+            JwtKeyRing.disabled(), true, false);
+    }
+}
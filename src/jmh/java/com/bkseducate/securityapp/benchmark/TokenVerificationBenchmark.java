@@ -0,0 +1,79 @@
+package com.bkseducate.securityapp.benchmark;
+
+import com.bkseducate.securityapp.domain.model.VerifiedAccessToken;
+import com.bkseducate.securityapp.infrastructure.security.JwtKeyRing;
+import com.bkseducate.securityapp.infrastructure.security.JwtTokenService;
+import com.bkseducate.securityapp.infrastructure.security.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.bkseducate.securityapp.benchmark.BenchmarkFixtures.*;
+
+/**
+ * Benchmark del coste por request de verificar un access token
+ *
+ * - legacyTwoPass: lo que hacía el filtro antes (validateAccessToken + extractRoles,
+ *   cada uno con un parser nuevo y su propia verificación HMAC)
+ * - singlePass: verifyAccessToken con el parser compartido
+ * - cachedHit: verifyAccessToken con la caché de tokens verificados activa (hit)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class TokenVerificationBenchmark {
+    
+    private JwtTokenService tokenService;
+    private JwtTokenService cachedTokenService;
+    private SecretKey secretKey;
+    private String token;
+    
+    @Setup
+    public void setup() {
+        tokenService = new JwtTokenService(
+            SECRET, ACCESS_TOKEN_EXPIRATION, VerifiedTokenCache.disabled(), authorityRegistry(),
+            JwtKeyRing.disabled(), true, false);
+        secretKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        token = tokenService.generateAccessToken(
+            UUID.randomUUID(),
+            "user@example.com",
+            Set.of(USER, ADMIN)
+        );
+        cachedTokenService = new JwtTokenService(
+            SECRET, ACCESS_TOKEN_EXPIRATION, new VerifiedTokenCache(true, 10_000), authorityRegistry(),
+            JwtKeyRing.disabled(), true, false);
+        cachedTokenService.verifyAccessToken(token);
+    }
+    
+    @Benchmark
+    public void legacyTwoPass(Blackhole bh) {
+        Claims first = Jwts.parser().verifyWith(secretKey).build()
+            .parseSignedClaims(token).getPayload();
+        bh.consume(UUID.fromString(first.getSubject()));
+        
+        Claims second = Jwts.parser().verifyWith(secretKey).build()
+            .parseSignedClaims(token).getPayload();
+        bh.consume(second.get("roles", List.class));
+    }
+    
+    @Benchmark
+    public VerifiedAccessToken singlePass() {
+        return tokenService.verifyAccessToken(token);
+    }
+    
+    @Benchmark
+    public VerifiedAccessToken cachedHit() {
+        return cachedTokenService.verifyAccessToken(token);
+    }
+}
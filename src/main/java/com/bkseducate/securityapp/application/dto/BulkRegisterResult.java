@@ -0,0 +1,41 @@
+package com.bkseducate.securityapp.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.UUID;
+
+/**
+ * DTO con el resultado del alta de un usuario dentro de un registro en lote
+ */
+@Schema(description = "Resultado del registro de un usuario en lote")
+public record BulkRegisterResult(
+    @Schema(description = "Posición del usuario en la entrada (desde 1)", example = "1")
+    int index,
+    
+    @Schema(description = "Email del usuario", example = "user@example.com")
+    String email,
+    
+    @Schema(description = "Resultado", example = "CREATED")
+    Status status,
+    
+    @Schema(description = "ID del usuario creado", example = "550e8400-e29b-41d4-a716-446655440000")
+    UUID id,
+    
+    @Schema(description = "Motivo si no se creó", example = "Email ya registrado")
+    String message
+) {
+    
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+    
+    public static BulkRegisterResult created(int index, String email, UUID id) {
+        return new BulkRegisterResult(index, email, Status.CREATED, id, null);
+    }
+    
+    public static BulkRegisterResult rejected(int index, String email, Status status, String message) {
+        return new BulkRegisterResult(index, email, status, null, message);
+    }
+}
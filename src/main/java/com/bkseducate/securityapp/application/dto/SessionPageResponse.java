@@ -0,0 +1,16 @@
+package com.bkseducate.securityapp.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+/**
+ * DTO para una página de sesiones activas
+ */
+@Schema(description = "Página de sesiones activas, de la más reciente a la más antigua")
+public record SessionPageResponse(
+    @Schema(description = "Sesiones de la página")
+    List<SessionResponse> sessions,
+    
+    @Schema(description = "Cursor de la página siguiente (null si no hay más)", example = "MjAyNi0wMS0wOFQxMDoxNTozMHw1NTBlODQwMA")
+    String nextCursor
+) {}
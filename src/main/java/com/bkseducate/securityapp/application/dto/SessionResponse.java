@@ -0,0 +1,17 @@
+package com.bkseducate.securityapp.application.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO para una sesión activa del usuario
+ */
+@Schema(description = "Sesión activa (refresh token vigente)")
+public record SessionResponse(
+    @Schema(description = "ID de la sesión (familia de refresh tokens)", example = "550e8400-e29b-41d4-a716-446655440000")
+    UUID sessionId,
+    
+    @Schema(description = "Expiración del refresh token vigente de la sesión", example = "2026-01-08T10:15:30")
+    LocalDateTime expiresAt
+) {}
@@ -0,0 +1,179 @@
+package com.bkseducate.securityapp.application.usecase;
+
+import com.bkseducate.securityapp.application.dto.BulkRegisterResult;
+import com.bkseducate.securityapp.application.dto.BulkRegisterResult.Status;
+import com.bkseducate.securityapp.application.dto.RegisterRequest;
+import com.bkseducate.securityapp.domain.exceptions.DomainException;
+import com.bkseducate.securityapp.domain.model.Role;
+import com.bkseducate.securityapp.domain.model.User;
+import com.bkseducate.securityapp.domain.ports.PasswordService;
+import com.bkseducate.securityapp.domain.ports.RoleRepository;
+import com.bkseducate.securityapp.domain.ports.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Caso de uso: Registro de usuarios en lote (alta de empresas)
+ * Asigna ROLE_USER a cada usuario, igual que CreateUserUseCase
+ *
+ * La entrada se procesa por bloques de chunk-size usuarios:
+ * 1. Validación de cada usuario y emails repetidos dentro del bloque; un email repetido en un
+ *    bloque posterior ya está registrado y lo descarta el paso 2. La memoria queda acotada por
+ *    chunk-size aunque la entrada sea un stream NDJSON arbitrariamente largo
+ * 2. Una consulta por bloque para descartar emails ya registrados (sin hashear sus contraseñas)
+ * 3. Hash de las contraseñas en paralelo en el pool acotado de hashing (fuera de transacción);
+ *    un usuario cuyo hash rechaza el pool saturado se informa como FAILED, sin afectar al resto
+ * 4. Una transacción corta por bloque con batch de INSERT de users y user_roles; un email
+ *    registrado entre el paso 2 y el 4 no se inserta (restricción única) y se informa como DUPLICATE
+ *
+ * Cada usuario produce un resultado, en el orden de la entrada.
+ */
+@Service
+public class BulkRegisterUsersUseCase {
+    
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordService passwordService;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    
+    public BulkRegisterUsersUseCase(
+            UserRepository userRepository,
+            RoleRepository roleRepository,
+            PasswordService passwordService,
+            Validator validator,
+            PlatformTransactionManager transactionManager,
+            @Value("${security.bulk-registration.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordService = passwordService;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+    
+    /**
+     * @param requests usuarios a registrar; un elemento null representa una entrada ilegible
+     * @param results  recibe el resultado de cada usuario, bloque a bloque
+     */
+    public void execute(Iterator<RegisterRequest> requests, Consumer<BulkRegisterResult> results) {
+        Role userRole = roleRepository.findByAuthority("ROLE_USER")
+            .orElseThrow(() -> new DomainException("Rol USER no encontrado en la base de datos"));
+    
+        Set<String> seenEmails = new HashSet<>(chunkSize * 2);
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        while (requests.hasNext()) {
+            chunk.add(validate(++index, requests.next(), seenEmails));
+            if (chunk.size() == chunkSize) {
+                process(chunk, userRole, results);
+                chunk.clear();
+                seenEmails.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            process(chunk, userRole, results);
+        }
+    }
+    
+    private Row validate(int index, RegisterRequest request, Set<String> seenEmails) {
+        if (request == null) {
+            return new Row(index, null, null, BulkRegisterResult.rejected(index, null, Status.INVALID, "JSON inválido"));
+        }
+        Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+            return new Row(index, request, null, BulkRegisterResult.rejected(index, request.email(), Status.INVALID, message));
+        }
+        String email = request.email().toLowerCase().trim();
+        if (!seenEmails.add(email)) {
+            return new Row(index, request, email,
+                BulkRegisterResult.rejected(index, email, Status.DUPLICATE, "Email repetido en la entrada"));
+        }
+        return new Row(index, request, email, null);
+    }
+    
+    private void process(List<Row> chunk, Role userRole, Consumer<BulkRegisterResult> results) {
+        List<Row> pending = chunk.stream().filter(row -> row.result == null).toList();
+    
+        // Emails ya registrados: una consulta por bloque
+        Set<String> existing = userRepository.findExistingEmails(pending.stream().map(row -> row.email).toList());
+        List<Row> toInsert = new ArrayList<>(pending.size());
+        for (Row row : pending) {
+            if (existing.contains(row.email)) {
+                row.reject(Status.DUPLICATE, "Email ya registrado");
+            } else {
+                toInsert.add(row);
+            }
+        }
+    
+        if (!toInsert.isEmpty()) {
+            insert(toInsert, userRole);
+        }
+        chunk.forEach(row -> results.accept(row.result));
+    }
+    
+    private void insert(List<Row> pending, Role userRole) {
+        List<String> hashes = passwordService.hashAll(pending.stream().map(row -> row.request.password()).toList());
+    
+        List<Row> rows = new ArrayList<>(pending.size());
+        List<User> users = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            Row row = pending.get(i);
+            if (hashes.get(i) == null) {
+                // Pool de hashing saturado para este usuario: el resto del bloque sigue
+                row.reject(Status.FAILED, "Servicio saturado, reintente este usuario");
+                continue;
+            }
+            try {
+                User user = User.create(row.email, hashes.get(i));
+                user.assignRole(userRole);
+                rows.add(row);
+                users.add(user);
+            } catch (DomainException ex) {
+                row.reject(Status.INVALID, ex.getMessage());
+            }
+        }
+    
+        List<Boolean> inserted = transactionTemplate.execute(status -> userRepository.insertAll(users));
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            if (inserted.get(i)) {
+                row.result = BulkRegisterResult.created(row.index, row.email, users.get(i).getId());
+            } else {
+                row.reject(Status.DUPLICATE, "Email ya registrado");
+            }
+        }
+    }
+    
+    private static final class Row {
+    
+        final int index;
+        final RegisterRequest request;
+        final String email;
+        BulkRegisterResult result;
+    
+        Row(int index, RegisterRequest request, String email, BulkRegisterResult result) {
+            this.index = index;
+            this.request = request;
+            this.email = email;
+            this.result = result;
+        }
+    
+        void reject(Status status, String message) {
+            result = BulkRegisterResult.rejected(index, email, status, message);
+        }
+    }
+}
@@ -13,6 +13,7 @@ import java.util.UUID;
 
 /**
  * Caso de uso: Cambiar contraseña
+ * Incrementa la época de sesión: los refresh tokens sin estado emitidos antes dejan de servir
  */
 @Service
 public class ChangePasswordUseCase {
@@ -44,5 +45,6 @@ public class ChangePasswordUseCase {
         
         // Guardar cambios
         userRepository.save(user);
+        userRepository.incrementSessionEpoch(userId);
     }
 }
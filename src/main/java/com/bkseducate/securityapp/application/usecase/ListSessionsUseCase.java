@@ -0,0 +1,77 @@
+package com.bkseducate.securityapp.application.usecase;
+
+import com.bkseducate.securityapp.application.dto.SessionPageResponse;
+import com.bkseducate.securityapp.application.dto.SessionResponse;
+import com.bkseducate.securityapp.domain.exceptions.DomainException;
+import com.bkseducate.securityapp.domain.model.ActiveSession;
+import com.bkseducate.securityapp.domain.ports.RefreshTokenRepository;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Caso de uso: Listar las sesiones activas del usuario
+ * De la más reciente a la más antigua (expiración descendente)
+ *
+ * Paginación por cursor (keyset): el cursor codifica la expiración y el id del último token
+ * de la página, y la página siguiente continúa a partir de él sobre el índice
+ * (user_id, expires_at). El coste de cada página no depende de cuántas se hayan leído antes,
+ * a diferencia de OFFSET, y las sesiones creadas o revocadas entre páginas no desplazan
+ * los resultados.
+ */
+@Service
+public class ListSessionsUseCase {
+    
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+    
+    private final RefreshTokenRepository refreshTokenRepository;
+    
+    public ListSessionsUseCase(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+    
+    /**
+     * @param cursor nextCursor de la página anterior (null para la primera)
+     * @param limit tamaño de página (null para el valor por defecto; como máximo MAX_LIMIT)
+     */
+    public SessionPageResponse execute(UUID userId, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.min(Math.max(limit, 1), MAX_LIMIT);
+        ActiveSession after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor);
+        
+        // Un elemento de más indica si existe página siguiente sin un COUNT
+        List<ActiveSession> sessions = refreshTokenRepository.findActiveSessions(userId, after, pageSize + 1);
+        boolean hasMore = sessions.size() > pageSize;
+        if (hasMore) {
+            sessions = sessions.subList(0, pageSize);
+        }
+        
+        List<SessionResponse> page = sessions.stream()
+            .map(session -> new SessionResponse(session.sessionId(), session.expiresAt()))
+            .toList();
+        String nextCursor = hasMore ? encodeCursor(sessions.get(sessions.size() - 1)) : null;
+        return new SessionPageResponse(page, nextCursor);
+    }
+    
+    private String encodeCursor(ActiveSession last) {
+        String raw = last.expiresAt() + "|" + last.tokenId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private ActiveSession decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new ActiveSession(
+                UUID.fromString(raw.substring(separator + 1)),
+                null,
+                LocalDateTime.parse(raw.substring(0, separator)));
+        } catch (RuntimeException ex) {
+            throw new DomainException("Cursor de sesiones inválido");
+        }
+    }
+}
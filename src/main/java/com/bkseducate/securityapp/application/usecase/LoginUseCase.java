@@ -3,22 +3,43 @@ package com.bkseducate.securityapp.application.usecase;
 import com.bkseducate.securityapp.application.dto.LoginRequest;
 import com.bkseducate.securityapp.application.dto.LoginResponse;
 import com.bkseducate.securityapp.domain.exceptions.InvalidCredentialsException;
+import com.bkseducate.securityapp.domain.exceptions.ServiceOverloadedException;
 import com.bkseducate.securityapp.domain.exceptions.UserNotFoundException;
 import com.bkseducate.securityapp.domain.model.RefreshToken;
 import com.bkseducate.securityapp.domain.model.User;
+import com.bkseducate.securityapp.domain.ports.LoginThrottle;
 import com.bkseducate.securityapp.domain.ports.PasswordService;
 import com.bkseducate.securityapp.domain.ports.RefreshTokenRepository;
+import com.bkseducate.securityapp.domain.ports.StatelessRefreshTokenCodec;
 import com.bkseducate.securityapp.domain.ports.TokenService;
 import com.bkseducate.securityapp.domain.ports.UserRepository;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 /**
  * Caso de uso: Login
  * Genera JWT access token y refresh token
+ * Si el hash almacenado usa un coste inferior al actual, se regenera con la contraseña ya verificada
+ * (UPDATE condicional de la columna password, solo si nadie la cambió durante la verificación)
+ *
+ * Los intentos fallidos se limitan por email e IP (LoginThrottle). Cada login reserva su intento
+ * antes de buscar el usuario: un intento rechazado no llega a la base de datos ni a BCrypt, y las
+ * requests concurrentes de un mismo email no pueden superar el límite.
+ *
+ * Ninguna conexión JDBC se retiene mientras se hashea: el login es una lectura corta del usuario,
+ * la verificación BCrypt y la firma del JWT sin transacción, una transacción corta si hay que
+ * guardar el hash regenerado y el INSERT del refresh token (diferido si hay write-behind).
+ *
+ * Cada login abre una sesión nueva; si el usuario supera security.sessions.max-per-user sesiones
+ * activas, se revocan las más antiguas.
+ *
+ * Con refresh tokens sin estado (security.stateless-refresh-token.enabled) el refresh token se
+ * cifra con la época de sesión del usuario y no se escribe nada en refresh_tokens.
  */
 @Service
 public class LoginUseCase {
@@ -27,36 +48,55 @@ public class LoginUseCase {
     private final PasswordService passwordService;
     private final TokenService tokenService;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final StatelessRefreshTokenCodec statelessRefreshTokenCodec;
+    private final LoginThrottle loginThrottle;
+    private final TransactionTemplate transactionTemplate;
     private final Long accessTokenExpiration;
+    private final int maxSessionsPerUser;
     
     public LoginUseCase(
             UserRepository userRepository,
             PasswordService passwordService,
             TokenService tokenService,
             RefreshTokenRepository refreshTokenRepository,
-            @Value("${jwt.access-token-expiration}") Long accessTokenExpiration) {
+            StatelessRefreshTokenCodec statelessRefreshTokenCodec,
+            LoginThrottle loginThrottle,
+            PlatformTransactionManager transactionManager,
+            @Value("${jwt.access-token-expiration}") Long accessTokenExpiration,
+            @Value("${security.sessions.max-per-user:10}") int maxSessionsPerUser) {
         this.userRepository = userRepository;
         this.passwordService = passwordService;
         this.tokenService = tokenService;
         this.refreshTokenRepository = refreshTokenRepository;
+        this.statelessRefreshTokenCodec = statelessRefreshTokenCodec;
+        this.loginThrottle = loginThrottle;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.accessTokenExpiration = accessTokenExpiration;
+        this.maxSessionsPerUser = Math.max(0, maxSessionsPerUser);
     }
     
-    @Transactional
-    public LoginResponse execute(LoginRequest request) {
-        // Buscar usuario
-        User user = userRepository.findByEmail(request.email())
-            .orElseThrow(() -> new UserNotFoundException("Usuario con email " + request.email() + " no encontrado"));
+    /**
+     * @param clientIp IP del cliente para el límite de intentos (puede ser null)
+     */
+    public LoginResponse execute(LoginRequest request, String clientIp) {
+        // Reservar un intento antes de cualquier consulta o hash; sin intentos disponibles → 429
+        loginThrottle.acquire(request.email(), clientIp);
         
-        // Verificar si está activo
-        if (!user.isActive()) {
-            throw new InvalidCredentialsException("Usuario bloqueado o inactivo");
+        User user;
+        try {
+            user = authenticate(request);
+        } catch (UserNotFoundException | InvalidCredentialsException ex) {
+            // Credenciales incorrectas: el intento reservado queda consumido
+            throw ex;
+        } catch (RuntimeException ex) {
+            // Fallo ajeno a las credenciales (p. ej. pool de hashing saturado): no cuenta como intento
+            loginThrottle.release(request.email(), clientIp);
+            throw ex;
         }
+        loginThrottle.recordSuccess(request.email(), clientIp);
         
-        // Verificar contraseña
-        if (!passwordService.matches(request.password(), user.getPassword())) {
-            throw new InvalidCredentialsException();
-        }
+        // Nuevo hash si el actual se generó con otro algoritmo o un coste inferior (fuera de transacción)
+        String upgradedHash = upgradedHash(user, request.password());
         
         // Generar access token
         String accessToken = tokenService.generateAccessToken(
@@ -65,20 +105,68 @@ public class LoginUseCase {
             user.getRoles()
         );
         
-        // Generar refresh token
-        String refreshTokenString = tokenService.generateRefreshToken();
-        
         // Calcular expiración del refresh token (7 días por defecto)
         LocalDateTime expiresAt = LocalDateTime.now().plusDays(7);
         
-        // Crear y guardar refresh token
-        RefreshToken refreshToken = RefreshToken.create(
-            user.getId(),
-            refreshTokenString,
-            expiresAt
-        );
-        refreshTokenRepository.save(refreshToken);
+        // Escrituras cortas: única parte del login que retiene una conexión
+        if (upgradedHash != null) {
+            // Solo la columna password y solo si no cambió durante la verificación: guardar el User
+            // leído antes pisaría un cambio de contraseña, un bloqueo o un rol asignado entretanto.
+            // Si cambió, el hash regenerado se descarta
+            transactionTemplate.executeWithoutResult(status ->
+                userRepository.replacePassword(user.getId(), user.getPassword(), upgradedHash));
+        }
+        
+        String refreshTokenString;
+        if (statelessRefreshTokenCodec.isEnabled()) {
+            // Sin estado: ninguna escritura más
+            refreshTokenString = statelessRefreshTokenCodec.issue(
+                user.getId(),
+                user.getSessionEpoch(),
+                expiresAt.atZone(ZoneId.systemDefault()).toInstant()
+            );
+        } else {
+            // Generar y crear refresh token
+            refreshTokenString = tokenService.generateRefreshToken();
+            RefreshToken refreshToken = RefreshToken.create(
+                user.getId(),
+                refreshTokenString,
+                expiresAt
+            );
+            // Fuera de transacción: con write-behind se agrupa con los de otros logins. En la misma
+            // transacción que el INSERT se revocan las sesiones más antiguas que excedan el máximo
+            refreshTokenRepository.insert(refreshToken, maxSessionsPerUser);
+        }
         
         return LoginResponse.of(accessToken, refreshTokenString, accessTokenExpiration / 1000);
     }
+    
+    private User authenticate(LoginRequest request) {
+        // Buscar usuario
+        User user = userRepository.findByEmail(request.email())
+            .orElseThrow(() -> new UserNotFoundException("Usuario con email " + request.email() + " no encontrado"));
+        
+        // Verificar si está activo
+        if (!user.isActive()) {
+            throw new InvalidCredentialsException("Usuario bloqueado o inactivo");
+        }
+        
+        // Verificar contraseña
+        if (!passwordService.matches(request.password(), user.getPassword())) {
+            throw new InvalidCredentialsException();
+        }
+        return user;
+    }
+    
+    private String upgradedHash(User user, String plainPassword) {
+        if (!passwordService.needsRehash(user.getPassword())) {
+            return null;
+        }
+        try {
+            return passwordService.hash(plainPassword);
+        } catch (ServiceOverloadedException ex) {
+            // Con el pool de hashing saturado no se bloquea el login: se reintentará en el próximo
+            return null;
+        }
+    }
 }
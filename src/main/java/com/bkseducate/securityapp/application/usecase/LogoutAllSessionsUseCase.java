@@ -0,0 +1,51 @@
+package com.bkseducate.securityapp.application.usecase;
+
+import com.bkseducate.securityapp.domain.model.VerifiedAccessToken;
+import com.bkseducate.securityapp.domain.ports.AccessTokenRevocationService;
+import com.bkseducate.securityapp.domain.ports.RefreshTokenRepository;
+import com.bkseducate.securityapp.domain.ports.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * Caso de uso: Cerrar todas las sesiones del usuario
+ * Revoca todos sus refresh tokens activos y el access token con el que se hizo la petición
+ *
+ * Los refresh tokens se revocan con un único UPDATE por user_id: el coste no depende de
+ * cargar las filas, tenga el usuario una sesión o miles. Los access tokens emitidos en otras
+ * sesiones siguen siendo válidos hasta su expiración.
+ *
+ * Los refresh tokens sin estado se invalidan incrementando la época de sesión del usuario.
+ */
+@Service
+public class LogoutAllSessionsUseCase {
+    
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final AccessTokenRevocationService accessTokenRevocationService;
+    
+    public LogoutAllSessionsUseCase(
+            RefreshTokenRepository refreshTokenRepository,
+            UserRepository userRepository,
+            AccessTokenRevocationService accessTokenRevocationService) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.accessTokenRevocationService = accessTokenRevocationService;
+    }
+    
+    /**
+     * @return número de refresh tokens revocados
+     */
+    @Transactional
+    public int execute(UUID userId, VerifiedAccessToken accessToken) {
+        int revoked = refreshTokenRepository.revokeAllForUser(userId);
+        userRepository.incrementSessionEpoch(userId);
+        
+        if (accessToken != null) {
+            accessTokenRevocationService.revoke(accessToken);
+        }
+        return revoked;
+    }
+}
@@ -1,31 +1,54 @@
 package com.bkseducate.securityapp.application.usecase;
 
 import com.bkseducate.securityapp.domain.exceptions.DomainException;
-import com.bkseducate.securityapp.domain.model.RefreshToken;
+import com.bkseducate.securityapp.domain.model.StatelessRefreshToken;
+import com.bkseducate.securityapp.domain.model.VerifiedAccessToken;
+import com.bkseducate.securityapp.domain.ports.AccessTokenRevocationService;
 import com.bkseducate.securityapp.domain.ports.RefreshTokenRepository;
+import com.bkseducate.securityapp.domain.ports.StatelessRefreshTokenCodec;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
+
 /**
  * Caso de uso: Logout
- * Invalida el refresh token
+ * Invalida el refresh token y revoca el access token con el que se hizo la petición
+ *
+ * El refresh token se revoca con un único UPDATE por su hash, sin cargarlo. Con la rotación,
+ * es el único token activo de su familia: revocarlo cierra la sesión.
+ *
+ * Un refresh token sin estado no tiene fila: su tokenId entra en la denylist hasta que expira.
  */
 @Service
 public class LogoutUseCase {
     
     private final RefreshTokenRepository refreshTokenRepository;
+    private final StatelessRefreshTokenCodec statelessRefreshTokenCodec;
+    private final AccessTokenRevocationService accessTokenRevocationService;
     
-    public LogoutUseCase(RefreshTokenRepository refreshTokenRepository) {
+    public LogoutUseCase(
+            RefreshTokenRepository refreshTokenRepository,
+            StatelessRefreshTokenCodec statelessRefreshTokenCodec,
+            AccessTokenRevocationService accessTokenRevocationService) {
         this.refreshTokenRepository = refreshTokenRepository;
+        this.statelessRefreshTokenCodec = statelessRefreshTokenCodec;
+        this.accessTokenRevocationService = accessTokenRevocationService;
     }
     
     @Transactional
-    public void execute(String refreshToken) {
-        RefreshToken token = refreshTokenRepository.findByToken(refreshToken)
-            .orElseThrow(() -> new DomainException("Refresh token no encontrado"));
-        
+    public void execute(String refreshToken, VerifiedAccessToken accessToken) {
         // Revocar el token
-        token.revoke();
-        refreshTokenRepository.save(token);
+        Optional<StatelessRefreshToken> stateless = statelessRefreshTokenCodec.decode(refreshToken);
+        if (stateless.isPresent()) {
+            accessTokenRevocationService.revoke(stateless.get().tokenId(), stateless.get().expiresAt());
+        } else if (!refreshTokenRepository.revokeByToken(refreshToken)) {
+            throw new DomainException("Refresh token no encontrado");
+        }
+        
+        // Revocar también el access token (deja de aceptarse antes de su expiración)
+        if (accessToken != null) {
+            accessTokenRevocationService.revoke(accessToken);
+        }
     }
 }
@@ -4,21 +4,40 @@ import com.bkseducate.securityapp.application.dto.LoginResponse;
 import com.bkseducate.securityapp.application.dto.RefreshTokenRequest;
 import com.bkseducate.securityapp.domain.exceptions.DomainException;
 import com.bkseducate.securityapp.domain.exceptions.InvalidCredentialsException;
-import com.bkseducate.securityapp.domain.exceptions.UserNotFoundException;
 import com.bkseducate.securityapp.domain.model.RefreshToken;
-import com.bkseducate.securityapp.domain.model.User;
+import com.bkseducate.securityapp.domain.model.RefreshTokenWithOwner;
+import com.bkseducate.securityapp.domain.model.SessionOwner;
+import com.bkseducate.securityapp.domain.model.StatelessRefreshToken;
+import com.bkseducate.securityapp.domain.ports.AccessTokenRevocationService;
 import com.bkseducate.securityapp.domain.ports.RefreshTokenRepository;
+import com.bkseducate.securityapp.domain.ports.StatelessRefreshTokenCodec;
 import com.bkseducate.securityapp.domain.ports.TokenService;
 import com.bkseducate.securityapp.domain.ports.UserRepository;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDateTime;
+import java.util.Optional;
 
 /**
  * Caso de uso: Refrescar token
- * Valida el refresh token y genera un nuevo access token
+ * Valida el refresh token, lo rota y genera un nuevo access token
+ *
+ * Rotación: el token presentado se consume con un UPDATE condicional (solo si sigue sin revocar)
+ * y se emite otro de la misma familia en la misma transacción. Si el UPDATE no afecta a ninguna
+ * fila, el token ya se había usado (o dos peticiones lo usan a la vez): se revoca la familia
+ * completa y el usuario debe volver a hacer login.
+ *
+ * La lectura es una sola consulta (token + estado, email y roles del usuario); antes de firmar
+ * solo se ejecutan además el UPDATE condicional y el INSERT del sucesor.
+ *
+ * Refresh token sin estado: se descifra y se valida su expiración, la denylist (logout) y la
+ * época de sesión del usuario, sin consultar refresh_tokens ni escribir nada. La época, el estado,
+ * el email y los roles llegan en una proyección (sin cargar la entidad User) que puede servirse de
+ * una caché de pocos segundos, invalidada al incrementar la época. No se rota: se
+ * devuelve el mismo refresh token, que sigue valiendo hasta su expiración, un logout o un
+ * cambio de época (logout-all o cambio de contraseña).
  */
 @Service
 public class RefreshTokenUseCase {
@@ -26,47 +45,106 @@ public class RefreshTokenUseCase {
     private final RefreshTokenRepository refreshTokenRepository;
     private final UserRepository userRepository;
     private final TokenService tokenService;
+    private final StatelessRefreshTokenCodec statelessRefreshTokenCodec;
+    private final AccessTokenRevocationService revocationService;
+    private final TransactionTemplate transactionTemplate;
     private final Long accessTokenExpiration;
     
     public RefreshTokenUseCase(
             RefreshTokenRepository refreshTokenRepository,
             UserRepository userRepository,
             TokenService tokenService,
+            StatelessRefreshTokenCodec statelessRefreshTokenCodec,
+            AccessTokenRevocationService revocationService,
+            PlatformTransactionManager transactionManager,
             @Value("${jwt.access-token-expiration}") Long accessTokenExpiration) {
         this.refreshTokenRepository = refreshTokenRepository;
         this.userRepository = userRepository;
         this.tokenService = tokenService;
+        this.statelessRefreshTokenCodec = statelessRefreshTokenCodec;
+        this.revocationService = revocationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.accessTokenExpiration = accessTokenExpiration;
     }
     
-    @Transactional
     public LoginResponse execute(RefreshTokenRequest request) {
-        // Buscar refresh token
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(request.refreshToken())
+        // Los tokens sin estado se validan sin consultar refresh_tokens
+        Optional<StatelessRefreshToken> stateless = statelessRefreshTokenCodec.decode(request.refreshToken());
+        if (stateless.isPresent()) {
+            return refreshStateless(stateless.get(), request.refreshToken());
+        }
+        
+        // Buscar refresh token junto con su usuario y roles (una sola consulta). Un token cuyo usuario
+        // se borró no aparece: refresh_tokens.user_id no tiene clave foránea y el JOIN no encuentra al usuario
+        RefreshTokenWithOwner found = refreshTokenRepository.findWithOwnerByToken(request.refreshToken())
             .orElseThrow(() -> new InvalidCredentialsException("Refresh token inválido"));
+        RefreshToken refreshToken = found.token();
+        
+        // Verificar si está expirado (uno revocado se trata como reutilización más abajo)
+        if (refreshToken.isExpired()) {
+            throw new InvalidCredentialsException("Refresh token expirado o revocado");
+        }
+        
+        // Verificar si el usuario está activo
+        if (!found.isOwnerActive()) {
+            throw new InvalidCredentialsException("Usuario bloqueado o inactivo");
+        }
+        
+        // Consumir el token y emitir el siguiente de la familia
+        RefreshToken next = refreshToken.rotate(tokenService.generateRefreshToken());
+        boolean rotated = !refreshToken.isRevoked() && transactionTemplate.execute(status -> {
+            if (!refreshTokenRepository.consume(refreshToken)) {
+                return false;
+            }
+            // La rotación no abre una sesión nueva: no aplica el límite de sesiones
+            refreshTokenRepository.insert(next, 0);
+            return true;
+        });
         
-        // Verificar si es válido
-        if (!refreshToken.isValid()) {
+        if (!rotated) {
+            // Transacción propia: la revocación persiste aunque la petición falle
+            transactionTemplate.executeWithoutResult(
+                status -> refreshTokenRepository.revokeFamily(refreshToken.getFamilyId()));
             throw new InvalidCredentialsException("Refresh token expirado o revocado");
         }
         
-        // Buscar usuario
-        User user = userRepository.findById(refreshToken.getUserId())
-            .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado"));
+        // Generar nuevo access token
+        String accessToken = tokenService.generateAccessToken(
+            refreshToken.getUserId(),
+            found.email(),
+            found.roles()
+        );
+        
+        return LoginResponse.of(accessToken, next.getToken(), accessTokenExpiration / 1000);
+    }
+    
+    private LoginResponse refreshStateless(StatelessRefreshToken refreshToken, String refreshTokenString) {
+        // Verificar expiración y revocación individual (logout)
+        if (refreshToken.isExpired() || revocationService.isRevoked(refreshToken.tokenId())) {
+            throw new InvalidCredentialsException("Refresh token expirado o revocado");
+        }
+        
+        // Época, estado, email y roles del usuario (proyección, sin cargar la entidad)
+        // Usuario borrado: el mismo 401 que un token desconocido en la base de datos
+        SessionOwner owner = userRepository.findSessionOwner(refreshToken.userId())
+            .orElseThrow(() -> new InvalidCredentialsException("Refresh token inválido"));
         
         // Verificar si está activo
-        if (!user.isActive()) {
+        if (!owner.isActive()) {
             throw new InvalidCredentialsException("Usuario bloqueado o inactivo");
         }
         
-        // Generar nuevo access token
+        // Una época distinta significa logout-all o cambio de contraseña posterior a la emisión
+        if (owner.sessionEpoch() != refreshToken.sessionEpoch()) {
+            throw new InvalidCredentialsException("Refresh token expirado o revocado");
+        }
+        
         String accessToken = tokenService.generateAccessToken(
-            user.getId(),
-            user.getEmail(),
-            user.getRoles()
+            owner.userId(),
+            owner.email(),
+            owner.roles()
         );
         
-        // Retornar nuevo access token con el mismo refresh token
-        return LoginResponse.of(accessToken, request.refreshToken(), accessTokenExpiration / 1000);
+        return LoginResponse.of(accessToken, refreshTokenString, accessTokenExpiration / 1000);
     }
 }
@@ -0,0 +1,15 @@
+package com.bkseducate.securityapp.domain.exceptions;
+
+/**
+ * Excepción lanzada cuando un access token no es válido (firma, formato o expiración)
+ */
+public class InvalidTokenException extends DomainException {
+    
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+    
+    public InvalidTokenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
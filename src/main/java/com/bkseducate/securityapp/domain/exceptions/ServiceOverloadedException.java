@@ -0,0 +1,19 @@
+package com.bkseducate.securityapp.domain.exceptions;
+
+/**
+ * Excepción lanzada cuando el servicio rechaza trabajo por estar saturado
+ * El cliente puede reintentar pasados retryAfterSeconds segundos
+ */
+public class ServiceOverloadedException extends DomainException {
+    
+    private final long retryAfterSeconds;
+    
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
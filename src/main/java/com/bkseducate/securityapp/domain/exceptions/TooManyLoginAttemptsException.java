@@ -0,0 +1,19 @@
+package com.bkseducate.securityapp.domain.exceptions;
+
+/**
+ * Excepción lanzada cuando un email o una IP superan el límite de intentos de login fallidos
+ * El cliente puede reintentar pasados retryAfterSeconds segundos
+ */
+public class TooManyLoginAttemptsException extends DomainException {
+    
+    private final long retryAfterSeconds;
+    
+    public TooManyLoginAttemptsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,15 @@
+package com.bkseducate.securityapp.domain.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Vista de lectura de una sesión activa: el refresh token vigente de una familia
+ * No incluye el token; tokenId y expiresAt sirven de cursor para la paginación
+ */
+public record ActiveSession(
+    UUID tokenId,
+    UUID sessionId,
+    LocalDateTime expiresAt
+) {
+}
@@ -7,14 +7,19 @@ import java.util.UUID;
 /**
  * Entidad de dominio RefreshToken
  * Representa un token de refresco para renovar el access token
+ *
+ * Cada refresh consume el token y emite otro de la misma familia (una familia por login).
+ * Presentar un token ya consumido indica que se ha filtrado: se revoca la familia entera.
  */
 public class RefreshToken {
     
     private UUID id;
     private UUID userId;
+    private UUID familyId;
     private String token;
     private LocalDateTime expiresAt;
     private boolean revoked;
+    private LocalDateTime revokedAt;
     
     private RefreshToken() {
     }
@@ -36,6 +41,7 @@ public class RefreshToken {
         RefreshToken refreshToken = new RefreshToken();
         refreshToken.id = UUID.randomUUID();
         refreshToken.userId = userId;
+        refreshToken.familyId = UUID.randomUUID();
         refreshToken.token = token;
         refreshToken.expiresAt = expiresAt;
         refreshToken.revoked = false;
@@ -43,24 +49,40 @@ public class RefreshToken {
         return refreshToken;
     }
     
+    /**
+     * Crea el token que sustituye a este en la misma familia
+     * Conserva la expiración: la sesión dura lo mismo que el login original
+     */
+    public RefreshToken rotate(String newToken) {
+        RefreshToken next = create(userId, newToken, expiresAt);
+        next.familyId = familyId;
+        return next;
+    }
+    
     /**
      * Factory method para reconstruir desde persistencia
      */
-    public static RefreshToken reconstruct(UUID id, UUID userId, String token, 
-                                          LocalDateTime expiresAt, boolean revoked) {
+    public static RefreshToken reconstruct(UUID id, UUID userId, UUID familyId, String token, 
+                                          LocalDateTime expiresAt, boolean revoked,
+                                          LocalDateTime revokedAt) {
         RefreshToken refreshToken = new RefreshToken();
         refreshToken.id = id;
         refreshToken.userId = userId;
+        refreshToken.familyId = familyId;
         refreshToken.token = token;
         refreshToken.expiresAt = expiresAt;
         refreshToken.revoked = revoked;
+        refreshToken.revokedAt = revokedAt;
         return refreshToken;
     }
     
     /**
-     * Revoca el token
+     * Revoca el token (conserva la fecha de la primera revocación)
      */
     public void revoke() {
+        if (!revoked || revokedAt == null) {
+            this.revokedAt = LocalDateTime.now();
+        }
         this.revoked = true;
     }
     
@@ -87,6 +109,10 @@ public class RefreshToken {
         return userId;
     }
     
+    public UUID getFamilyId() {
+        return familyId;
+    }
+    
     public String getToken() {
         return token;
     }
@@ -98,4 +124,8 @@ public class RefreshToken {
     public boolean isRevoked() {
         return revoked;
     }
+    
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
 }
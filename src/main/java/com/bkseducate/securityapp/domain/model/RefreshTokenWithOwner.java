@@ -0,0 +1,25 @@
+package com.bkseducate.securityapp.domain.model;
+
+import java.util.Set;
+
+/**
+ * Vista de lectura para /auth/refresh: el refresh token y lo que hace falta del usuario
+ * para validarlo y emitir el access token (estado, email y roles), obtenidos en una sola consulta
+ */
+public record RefreshTokenWithOwner(
+    RefreshToken token,
+    String email,
+    UserStatus status,
+    Set<Role> roles
+) {
+    public RefreshTokenWithOwner {
+        roles = roles != null ? Set.copyOf(roles) : Set.of();
+    }
+    
+    /**
+     * Verifica si el usuario dueño del token está activo
+     */
+    public boolean isOwnerActive() {
+        return status == UserStatus.ACTIVE;
+    }
+}
@@ -0,0 +1,27 @@
+package com.bkseducate.securityapp.domain.model;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Vista de lectura para el refresh sin estado: la época de sesión del usuario y lo que hace
+ * falta para emitir el access token (estado, email y roles), sin cargar la entidad User
+ */
+public record SessionOwner(
+    UUID userId,
+    String email,
+    UserStatus status,
+    Set<Role> roles,
+    long sessionEpoch
+) {
+    public SessionOwner {
+        roles = roles != null ? Set.copyOf(roles) : Set.of();
+    }
+    
+    /**
+     * Verifica si el usuario está activo
+     */
+    public boolean isActive() {
+        return status == UserStatus.ACTIVE;
+    }
+}
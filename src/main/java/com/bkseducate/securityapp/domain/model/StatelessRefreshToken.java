@@ -0,0 +1,25 @@
+package com.bkseducate.securityapp.domain.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Value object con el contenido de un refresh token sin estado, ya descifrado y autenticado
+ * No tiene fila en refresh_tokens: su validez depende de la expiración, de la época de sesión
+ * del usuario y de la denylist de tokens revocados (por tokenId)
+ */
+public record StatelessRefreshToken(
+    String tokenId,
+    UUID userId,
+    Instant issuedAt,
+    Instant expiresAt,
+    long sessionEpoch
+) {
+    
+    /**
+     * Verifica si el token está expirado
+     */
+    public boolean isExpired() {
+        return !Instant.now().isBefore(expiresAt);
+    }
+}
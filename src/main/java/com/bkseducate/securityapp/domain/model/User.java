@@ -16,6 +16,7 @@ public class User {
     private String password;
     private Set<Role> roles;
     private UserStatus status;
+    private long sessionEpoch;
     
     // Constructor privado para forzar uso de factory methods
     private User() {
@@ -50,13 +51,14 @@ public class User {
      * Factory method para reconstruir desde persistencia
      */
     public static User reconstruct(UUID id, String email, String password, 
-                                   Set<Role> roles, UserStatus status) {
+                                   Set<Role> roles, UserStatus status, long sessionEpoch) {
         User user = new User();
         user.id = id;
         user.email = email;
         user.password = password;
         user.roles = new HashSet<>(roles);
         user.status = status;
+        user.sessionEpoch = sessionEpoch;
         return user;
     }
     
@@ -143,4 +145,11 @@ public class User {
     public UserStatus getStatus() {
         return status;
     }
+    
+    /**
+     * Época de sesión: los refresh tokens sin estado emitidos con una época anterior ya no son válidos
+     */
+    public long getSessionEpoch() {
+        return sessionEpoch;
+    }
 }
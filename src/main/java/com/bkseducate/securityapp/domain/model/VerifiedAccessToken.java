@@ -0,0 +1,31 @@
+package com.bkseducate.securityapp.domain.model;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Value object con los claims de un access token ya verificado
+ * Se obtiene en una sola pasada (firma + expiración + claims) y es inmutable
+ * El email es null en tokens emitidos con el formato compacto
+ * El tokenId (claim jti) es null en tokens emitidos antes de introducir la revocación
+ */
+public record VerifiedAccessToken(
+    UUID userId,
+    String email,
+    Set<String> roles,
+    Instant issuedAt,
+    Instant expiresAt,
+    String tokenId
+) {
+    public VerifiedAccessToken {
+        roles = roles != null ? Set.copyOf(roles) : Set.of();
+    }
+    
+    /**
+     * Verifica si el token incluye un authority específico
+     */
+    public boolean hasRole(String authority) {
+        return roles.contains(authority);
+    }
+}
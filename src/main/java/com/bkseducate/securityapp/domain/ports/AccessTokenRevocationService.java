@@ -0,0 +1,34 @@
+package com.bkseducate.securityapp.domain.ports;
+
+import com.bkseducate.securityapp.domain.model.VerifiedAccessToken;
+import java.time.Instant;
+
+/**
+ * Puerto de salida para la revocación de access tokens antes de su expiración
+ * La consulta se hace en cada request, por lo que la implementación debe ser O(1) en memoria
+ *
+ * También revoca refresh tokens sin estado por su tokenId: comparten el espacio de ids
+ * (16 bytes aleatorios en base64url) con el jti de los access tokens.
+ */
+public interface AccessTokenRevocationService {
+    
+    /**
+     * Revoca el access token hasta su expiración
+     */
+    void revoke(VerifiedAccessToken token);
+    
+    /**
+     * Indica si el access token ha sido revocado
+     */
+    boolean isRevoked(VerifiedAccessToken token);
+    
+    /**
+     * Revoca un token por su id hasta su expiración
+     */
+    void revoke(String tokenId, Instant expiresAt);
+    
+    /**
+     * Indica si el id de token ha sido revocado
+     */
+    boolean isRevoked(String tokenId);
+}
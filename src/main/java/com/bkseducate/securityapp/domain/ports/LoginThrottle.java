@@ -0,0 +1,30 @@
+package com.bkseducate.securityapp.domain.ports;
+
+/**
+ * Puerto de salida para limitar los intentos de login fallidos
+ * Se consulta antes de buscar el usuario o verificar la contraseña
+ *
+ * Cada login reserva un intento antes de verificar las credenciales: un fallo lo deja consumido,
+ * un login correcto o un error ajeno a las credenciales lo devuelve. Así las requests concurrentes
+ * no pueden superar el límite mientras las primeras siguen en BCrypt.
+ */
+public interface LoginThrottle {
+    
+    /**
+     * Reserva un intento del email y de la IP
+     * Lanza TooManyLoginAttemptsException si alguno agotó sus intentos (no se reserva nada)
+     * clientIp puede ser null (solo se limita por email)
+     */
+    void acquire(String email, String clientIp);
+    
+    /**
+     * Login correcto: restablece los intentos del email y devuelve el intento reservado de la IP
+     * Los fallos previos de la IP se mantienen (un login propio no debe ocultar fallos contra otras cuentas)
+     */
+    void recordSuccess(String email, String clientIp);
+    
+    /**
+     * Devuelve el intento reservado sin contarlo como fallo (p. ej. pool de hashing saturado)
+     */
+    void release(String email, String clientIp);
+}
@@ -1,5 +1,7 @@
 package com.bkseducate.securityapp.domain.ports;
 
+import java.util.List;
+
 /**
  * Puerto de salida para servicios de contraseña
  * El dominio necesita hashear y verificar contraseñas sin conocer la implementación
@@ -11,8 +13,20 @@ public interface PasswordService {
      */
     String hash(String plainPassword);
     
+    /**
+     * Hashea varias contraseñas en paralelo, conservando el orden
+     * Una posición es null si esa contraseña no se pudo hashear por saturación del servicio
+     */
+    List<String> hashAll(List<String> plainPasswords);
+    
     /**
      * Verifica si una contraseña en texto plano coincide con el hash
      */
     boolean matches(String plainPassword, String hashedPassword);
+    
+    /**
+     * Indica si el hash se generó con otro algoritmo o con parámetros más débiles
+     * que los actuales y debe regenerarse (tras verificar la contraseña en claro)
+     */
+    boolean needsRehash(String hashedPassword);
 }
@@ -1,6 +1,8 @@
 package com.bkseducate.securityapp.domain.ports;
 
+import com.bkseducate.securityapp.domain.model.ActiveSession;
 import com.bkseducate.securityapp.domain.model.RefreshToken;
+import com.bkseducate.securityapp.domain.model.RefreshTokenWithOwner;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,23 +16,61 @@ public interface RefreshTokenRepository {
      */
     RefreshToken save(RefreshToken refreshToken);
     
+    /**
+     * Inserta un refresh token recién creado
+     * Fuera de una transacción la escritura puede diferirse unos milisegundos (write-behind);
+     * las búsquedas y revocaciones posteriores lo ven igualmente
+     *
+     * @param maxActiveSessions si es mayor que 0, en la misma transacción se revocan las sesiones
+     *                          activas más antiguas del usuario que excedan ese número
+     */
+    void insert(RefreshToken refreshToken, int maxActiveSessions);
+    
     /**
      * Busca un refresh token por token string
+     * La persistencia solo guarda un hash del token: el valor en claro únicamente está
+     * disponible en los tokens recién creados o buscados por este método
      */
     Optional<RefreshToken> findByToken(String token);
     
     /**
-     * Busca todos los refresh tokens de un usuario
+     * Busca un refresh token junto con el estado, el email y los roles de su usuario
+     * en una sola consulta (vacío si el token o el usuario no existen)
      */
-    java.util.List<RefreshToken> findByUserId(UUID userId);
+    Optional<RefreshTokenWithOwner> findWithOwnerByToken(String token);
     
     /**
-     * Elimina un refresh token
+     * Consume el token: lo marca como revocado solo si seguía activo (compare-and-set en una
+     * única sentencia). Devuelve false si otra petición ya lo había consumido o revocado
      */
-    void delete(RefreshToken refreshToken);
+    boolean consume(RefreshToken refreshToken);
     
     /**
-     * Elimina todos los refresh tokens de un usuario
+     * Revoca todos los tokens activos de una familia (sesión)
+     * @return número de tokens revocados
      */
-    void deleteByUserId(UUID userId);
+    int revokeFamily(UUID familyId);
+    
+    /**
+     * Revoca el token en una única sentencia, sin cargarlo (idempotente si ya estaba revocado)
+     * @return false si el token no existe
+     */
+    boolean revokeByToken(String token);
+    
+    /**
+     * Revoca todos los tokens activos de un usuario en una única sentencia
+     * @return número de tokens revocados
+     */
+    int revokeAllForUser(UUID userId);
+    
+    /**
+     * Sesiones activas de un usuario, de la que expira más tarde a la que antes (keyset)
+     * @param after última sesión de la página anterior, o null para la primera página
+     */
+    java.util.List<ActiveSession> findActiveSessions(UUID userId, ActiveSession after, int limit);
+    
+    /**
+     * Elimina un refresh token
+     */
+    void delete(RefreshToken refreshToken);
 }
@@ -1,6 +1,7 @@
 package com.bkseducate.securityapp.domain.ports;
 
 import com.bkseducate.securityapp.domain.model.Role;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -29,6 +30,11 @@ public interface RoleRepository {
      */
     Optional<Role> findById(UUID id);
     
+    /**
+     * Retorna todos los roles del catálogo
+     */
+    List<Role> findAll();
+    
     /**
      * Verifica si existe un rol con el nombre dado
      */
@@ -0,0 +1,30 @@
+package com.bkseducate.securityapp.domain.ports;
+
+import com.bkseducate.securityapp.domain.model.StatelessRefreshToken;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Puerto de salida para refresh tokens sin estado (autocontenidos y cifrados)
+ * El dominio solo ve el contenido; el formato y la clave son de la implementación
+ */
+public interface StatelessRefreshTokenCodec {
+    
+    /**
+     * Indica si los refresh tokens nuevos se emiten sin estado
+     */
+    boolean isEnabled();
+    
+    /**
+     * Emite un refresh token para el usuario con su época de sesión actual
+     */
+    String issue(UUID userId, long sessionEpoch, Instant expiresAt);
+    
+    /**
+     * Descifra y autentica un refresh token
+     * Retorna vacío si el modo está desactivado, si el token no tiene este formato (por ejemplo,
+     * uno de base de datos) o si no supera la autenticación
+     */
+    Optional<StatelessRefreshToken> decode(String token);
+}
@@ -1,6 +1,7 @@
 package com.bkseducate.securityapp.domain.ports;
 
 import com.bkseducate.securityapp.domain.model.Role;
+import com.bkseducate.securityapp.domain.model.VerifiedAccessToken;
 import java.util.Set;
 import java.util.UUID;
 
@@ -20,13 +21,21 @@ public interface TokenService {
      */
     String generateRefreshToken();
     
+    /**
+     * Verifica un access token (firma y expiración) en una sola pasada
+     * y retorna todos sus claims
+     */
+    VerifiedAccessToken verifyAccessToken(String token);
+    
     /**
      * Valida un access token y retorna el userId
+     * Para leer más de un claim usar {@link #verifyAccessToken(String)}
      */
     UUID validateAccessToken(String token);
     
     /**
      * Extrae los roles de un token
+     * Para leer más de un claim usar {@link #verifyAccessToken(String)}
      */
     Set<Role> extractRoles(String token);
 }
@@ -1,7 +1,11 @@
 package com.bkseducate.securityapp.domain.ports;
 
+import com.bkseducate.securityapp.domain.model.SessionOwner;
 import com.bkseducate.securityapp.domain.model.User;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -25,11 +29,44 @@ public interface UserRepository {
      */
     Optional<User> findById(UUID id);
     
+    /**
+     * Época de sesión, estado, email y roles del usuario (una sola consulta, sin cargar la entidad)
+     * Puede servirse de una caché de pocos segundos: incrementSessionEpoch y save la invalidan en
+     * este nodo; en otros nodos el cambio se ve al caducar la entrada
+     */
+    Optional<SessionOwner> findSessionOwner(UUID id);
+    
     /**
      * Verifica si existe un usuario con el email dado
      */
     boolean existsByEmail(String email);
     
+    /**
+     * Retorna los emails de la colección que ya están registrados (una sola consulta)
+     */
+    Set<String> findExistingEmails(Collection<String> emails);
+    
+    /**
+     * Inserta usuarios nuevos y sus roles en lote
+     * Retorna, por usuario y en el mismo orden, si se insertó (false = email ya registrado:
+     * la restricción única descarta la fila sin abortar el resto)
+     */
+    List<Boolean> insertAll(List<User> users);
+    
+    /**
+     * Sustituye el hash de la contraseña solo si sigue siendo expectedHash (un único UPDATE condicional)
+     * No toca el resto del usuario: un cambio de contraseña, estado o roles concurrente prevalece
+     *
+     * @return false si la contraseña cambió entretanto (o el usuario no existe)
+     */
+    boolean replacePassword(UUID userId, String expectedHash, String newHash);
+    
+    /**
+     * Incrementa la época de sesión del usuario (un único UPDATE atómico)
+     * Invalida todos sus refresh tokens sin estado emitidos hasta ahora
+     */
+    void incrementSessionEpoch(UUID userId);
+    
     /**
      * Elimina un usuario
      */
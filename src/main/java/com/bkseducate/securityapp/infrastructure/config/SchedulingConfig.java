@@ -0,0 +1,16 @@
+package com.bkseducate.securityapp.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled) de la aplicación
+ *
+ * El pool del scheduler se dimensiona en application.yml (spring.task.scheduling.pool.size):
+ * con el hilo único por defecto, el flush del write-behind y la sincronización de la denylist
+ * esperarían detrás de la purga o del key ring
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,97 @@
+package com.bkseducate.securityapp.infrastructure.config;
+
+import com.bkseducate.securityapp.infrastructure.security.RateLimitedLogger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Diagnóstico de hilos virtuales fijados (pinned) a su hilo portador
+ *
+ * Solo se activa en modo hilos virtuales (spring.threads.virtual.enabled=true sobre Java 21+).
+ * Se suscribe al evento JFR jdk.VirtualThreadPinned: un hilo virtual que bloquea dentro de un
+ * bloque synchronized o de código nativo (p. ej. un driver JDBC) ocupa el hilo portador y reduce
+ * la concurrencia real. Cada evento por encima del umbral se cuenta en la métrica
+ * jvm.threads.virtual.pinned y se registra (con límite de frecuencia) con los frames superiores.
+ *
+ * Para una traza completa en la salida estándar: -Djdk.tracePinnedThreads=full
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+    
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+    
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final RateLimitedLogger pinningLogger = new RateLimitedLogger(logger, 10, 60_000);
+    
+    private final Duration threshold;
+    private final Counter pinnedCounter;
+    private RecordingStream recordingStream;
+    
+    public VirtualThreadPinningMonitor(
+            @Value("${diagnostics.virtual-threads.pinned-threshold:20ms}") Duration threshold,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.threshold = threshold;
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        this.pinnedCounter = registry != null
+            ? Counter.builder("jvm.threads.virtual.pinned")
+                .description("Hilos virtuales fijados al hilo portador por encima del umbral")
+                .register(registry)
+            : null;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+        logger.info("Monitor de hilos virtuales fijados activo (umbral {})", threshold);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+    
+    private void onPinned(RecordedEvent event) {
+        if (pinnedCounter != null) {
+            pinnedCounter.increment();
+        }
+        pinningLogger.warn("Hilo virtual fijado durante {} ms:\n{}",
+            event.getDuration().toMillis(), topFrames(event.getStackTrace()));
+    }
+    
+    private static String topFrames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t(sin stack trace)";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        return frames.stream()
+            .limit(LOGGED_FRAMES)
+            .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : ""))
+            .collect(Collectors.joining("\n"));
+    }
+}
@@ -2,6 +2,7 @@ package com.bkseducate.securityapp.infrastructure.persistence.adapters.in.rest;
 
 import com.bkseducate.securityapp.application.dto.*;
 import com.bkseducate.securityapp.application.usecase.*;
+import com.bkseducate.securityapp.domain.model.VerifiedAccessToken;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -9,6 +10,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -30,6 +32,8 @@ public class AuthController {
     private final LoginUseCase loginUseCase;
     private final RefreshTokenUseCase refreshTokenUseCase;
     private final LogoutUseCase logoutUseCase;
+    private final LogoutAllSessionsUseCase logoutAllSessionsUseCase;
+    private final ListSessionsUseCase listSessionsUseCase;
     private final ChangePasswordUseCase changePasswordUseCase;
     private final GetCurrentUserUseCase getCurrentUserUseCase;
     
@@ -38,12 +42,16 @@ public class AuthController {
             LoginUseCase loginUseCase,
             RefreshTokenUseCase refreshTokenUseCase,
             LogoutUseCase logoutUseCase,
+            LogoutAllSessionsUseCase logoutAllSessionsUseCase,
+            ListSessionsUseCase listSessionsUseCase,
             ChangePasswordUseCase changePasswordUseCase,
             GetCurrentUserUseCase getCurrentUserUseCase) {
         this.createUserUseCase = createUserUseCase;
         this.loginUseCase = loginUseCase;
         this.refreshTokenUseCase = refreshTokenUseCase;
         this.logoutUseCase = logoutUseCase;
+        this.logoutAllSessionsUseCase = logoutAllSessionsUseCase;
+        this.listSessionsUseCase = listSessionsUseCase;
         this.changePasswordUseCase = changePasswordUseCase;
         this.getCurrentUserUseCase = getCurrentUserUseCase;
     }
@@ -72,11 +80,14 @@ public class AuthController {
         @ApiResponse(responseCode = "200", description = "Login exitoso",
             content = @Content(schema = @Schema(implementation = LoginResponse.class))),
         @ApiResponse(responseCode = "401", description = "Credenciales inválidas"),
-        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado"),
+        @ApiResponse(responseCode = "429", description = "Demasiados intentos fallidos (ver Retry-After)")
     })
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
-        LoginResponse response = loginUseCase.execute(request);
+    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request,
+                                               HttpServletRequest httpRequest) {
+        // getRemoteAddr ya refleja X-Forwarded-For si server.forward-headers-strategy está activo
+        LoginResponse response = loginUseCase.execute(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
     
@@ -97,7 +108,7 @@ public class AuthController {
     
     @Operation(
         summary = "Cerrar sesión",
-        description = "Invalida el refresh token, cerrando la sesión del usuario."
+        description = "Invalida el refresh token y revoca el access token actual, cerrando la sesión del usuario."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Sesión cerrada exitosamente"),
@@ -107,10 +118,53 @@ public class AuthController {
     @PostMapping("/logout")
     public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request, 
                                        Authentication authentication) {
-        logoutUseCase.execute(request.refreshToken());
+        VerifiedAccessToken accessToken = authentication != null
+                && authentication.getCredentials() instanceof VerifiedAccessToken verified ? verified : null;
+        logoutUseCase.execute(request.refreshToken(), accessToken);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @Operation(
+        summary = "Cerrar todas las sesiones",
+        description = "Revoca todos los refresh tokens del usuario autenticado y el access token actual. "
+            + "Los access tokens de otras sesiones siguen siendo válidos hasta su expiración."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Sesiones cerradas exitosamente"),
+        @ApiResponse(responseCode = "401", description = "No autenticado")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PostMapping("/logout-all")
+    public ResponseEntity<Void> logoutAll(Authentication authentication) {
+        UUID userId = (UUID) authentication.getPrincipal();
+        VerifiedAccessToken accessToken = authentication.getCredentials() instanceof VerifiedAccessToken verified
+                ? verified : null;
+        logoutAllSessionsUseCase.execute(userId, accessToken);
         return ResponseEntity.noContent().build();
     }
     
+    @Operation(
+        summary = "Listar sesiones activas",
+        description = "Retorna las sesiones activas del usuario autenticado, de la más reciente a la más antigua. "
+            + "Para la página siguiente se envía el nextCursor de la respuesta anterior."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Sesiones obtenidas exitosamente",
+            content = @Content(schema = @Schema(implementation = SessionPageResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido"),
+        @ApiResponse(responseCode = "401", description = "No autenticado")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/sessions")
+    public ResponseEntity<SessionPageResponse> listSessions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+        UUID userId = (UUID) authentication.getPrincipal();
+        SessionPageResponse response = listSessionsUseCase.execute(userId, cursor, limit);
+        return ResponseEntity.ok(response);
+    }
+    
     @Operation(
         summary = "Obtener usuario autenticado",
         description = "Retorna la información del usuario actualmente autenticado."
@@ -0,0 +1,46 @@
+package com.bkseducate.securityapp.infrastructure.persistence.adapters.in.rest;
+
+import com.bkseducate.securityapp.infrastructure.security.JwtKeyRing;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Controlador REST que publica las claves públicas de firma (JWKS)
+ * Permite a otros servicios verificar los access tokens localmente
+ */
+@Tag(name = "JWKS", description = "Claves públicas para verificar access tokens")
+@RestController
+public class JwksController {
+    
+    private final JwtKeyRing keyRing;
+    private final CacheControl cacheControl;
+    
+    public JwksController(
+            JwtKeyRing keyRing,
+            @Value("${jwt.signing.jwks-max-age:300}") long jwksMaxAgeSeconds) {
+        this.keyRing = keyRing;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(jwksMaxAgeSeconds)).cachePublic();
+    }
+    
+    @Operation(
+        summary = "JSON Web Key Set",
+        description = "Claves públicas (activa y retiradas vigentes) con las que se firman los access tokens. "
+            + "Vacío cuando la firma es HMAC."
+    )
+    @ApiResponse(responseCode = "200", description = "JWKS")
+    @GetMapping(value = "/.well-known/jwks.json", produces = "application/jwk-set+json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+            .cacheControl(cacheControl)
+            .body(Map.of("keys", keyRing.publicJwks()));
+    }
+}
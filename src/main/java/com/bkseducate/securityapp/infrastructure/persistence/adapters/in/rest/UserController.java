@@ -1,8 +1,11 @@
 package com.bkseducate.securityapp.infrastructure.persistence.adapters.in.rest;
 
 import com.bkseducate.securityapp.application.dto.AssignRoleRequest;
+import com.bkseducate.securityapp.application.dto.BulkRegisterResult;
+import com.bkseducate.securityapp.application.dto.RegisterRequest;
 import com.bkseducate.securityapp.application.dto.UserResponse;
 import com.bkseducate.securityapp.application.usecase.AssignRoleUseCase;
+import com.bkseducate.securityapp.application.usecase.BulkRegisterUsersUseCase;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -10,11 +13,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
 /**
@@ -27,9 +39,16 @@ import java.util.UUID;
 public class UserController {
     
     private final AssignRoleUseCase assignRoleUseCase;
+    private final BulkRegisterUsersUseCase bulkRegisterUsersUseCase;
+    private final JsonMapper jsonMapper;
     
-    public UserController(AssignRoleUseCase assignRoleUseCase) {
+    public UserController(
+            AssignRoleUseCase assignRoleUseCase,
+            BulkRegisterUsersUseCase bulkRegisterUsersUseCase,
+            JsonMapper jsonMapper) {
         this.assignRoleUseCase = assignRoleUseCase;
+        this.bulkRegisterUsersUseCase = bulkRegisterUsersUseCase;
+        this.jsonMapper = jsonMapper;
     }
     
     @Operation(
@@ -53,4 +72,84 @@ public class UserController {
         UserResponse response = assignRoleUseCase.execute(userId, request);
         return ResponseEntity.ok(response);
     }
+    
+    @Operation(
+        summary = "Registrar usuarios en lote",
+        description = "Recibe un usuario por línea (NDJSON, mismo formato que /auth/register) y responde "
+            + "un resultado por línea en el mismo orden: CREATED, DUPLICATE, INVALID o FAILED. "
+            + "Los usuarios se procesan por bloques; cada bloque se confirma por separado. Requiere rol ADMIN."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultados por usuario (NDJSON)",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                schema = @Schema(implementation = BulkRegisterResult.class))),
+        @ApiResponse(responseCode = "401", description = "No autenticado"),
+        @ApiResponse(responseCode = "403", description = "No tiene permisos (requiere ADMIN)")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public void bulkRegister(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream out = response.getOutputStream();
+        
+        // Los resultados se escriben a medida que se confirma cada bloque
+        bulkRegisterUsersUseCase.execute(new NdjsonRequests(reader), result -> {
+            try {
+                out.write(jsonMapper.writeValueAsBytes(result));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    /**
+     * Lee un RegisterRequest por línea; las líneas vacías se ignoran
+     * y una línea que no es JSON válido se entrega como null
+     */
+    private final class NdjsonRequests implements Iterator<RegisterRequest> {
+        
+        private final BufferedReader reader;
+        private String nextLine;
+        
+        NdjsonRequests(BufferedReader reader) {
+            this.reader = reader;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            try {
+                while (nextLine == null) {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                    if (!line.isBlank()) {
+                        nextLine = line;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        @Override
+        public RegisterRequest next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String line = nextLine;
+            nextLine = null;
+            try {
+                return jsonMapper.readValue(line, RegisterRequest.class);
+            } catch (JacksonException e) {
+                return null;
+            }
+        }
+    }
 }
@@ -0,0 +1,390 @@
+package com.bkseducate.securityapp.infrastructure.persistence.adapters.out.persistence;
+
+import com.bkseducate.securityapp.domain.model.RefreshToken;
+import com.bkseducate.securityapp.infrastructure.persistence.converter.UuidJdbcBinder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Escritura de refresh tokens nuevos con batch JDBC (INSERT directo, sin el SELECT previo del merge de JPA)
+ *
+ * Modo write-behind (opcional, security.refresh-token-write-behind.enabled):
+ * - Los tokens insertados fuera de una transacción (login) se encolan en memoria y se escriben
+ *   en batches de hasta batch-size filas cada flush-interval ms, en una transacción por batch
+ * - Cola acotada a capacity tokens: con la cola llena, el propio login vacía la cola y escribe su
+ *   token directamente (backpressure)
+ * - Dentro de una transacción (rotación en /auth/refresh) la escritura es inmediata y forma parte
+ *   de ella
+ * - Lecturas y revocaciones sobre un token pendiente vacían antes la cola: la base de datos
+ *   siempre ve el token antes de consultarlo o modificarlo
+ * - Al parar la aplicación se escriben todos los pendientes
+ *
+ * Fallos de un batch:
+ * - Transitorios (timeout, deadlock, conexión caída o pool agotado): el batch y los siguientes vuelven
+ *   al principio de la cola y el flush falla; cada token se reintenta como mucho max-retries veces
+ * - Permanentes (p. ej. una restricción violada) o reintentos agotados: el batch se escribe fila a fila
+ *   y las filas que fallan se descartan con un ERROR en el log, sin bloquear al resto de la cola
+ *
+ * Un token pendiente solo existe en la memoria de este nodo: si el proceso muere sin un apagado
+ * ordenado, los logins de los últimos flush-interval ms pierden su refresh token (el usuario
+ * vuelve a hacer login cuando expire el access token). Por lo mismo, un /auth/refresh o /auth/logout
+ * que llegue a otro nodo antes del flush no encuentra el token: el modo exige sesiones fijas
+ * (sticky sessions) o un único nodo, y solo se activa si además sticky-sessions=true; sin esa
+ * confirmación la escritura sigue siendo inmediata.
+ *
+ * Encolar (comprobar capacity, pending + queue) y vaciar la cola van bajo enqueueLock: un flush
+ * nunca ve la entrada en la cola sin verla en pending, ni al revés, y pending nunca supera capacity.
+ *
+ * Con MySQL, rewriteBatchedStatements=true en la URL convierte cada batch en un INSERT multi-fila.
+ *
+ * Límite de sesiones: en la misma transacción que el INSERT se revocan las sesiones activas más
+ * antiguas (menor expires_at) que excedan el máximo del usuario, usando el índice (user_id, expires_at).
+ * Cada login revoca como mucho MAX_EVICTIONS sesiones.
+ *
+ * Métricas: security.refresh.write-behind.{pending, written, dropped} y security.refresh.write-behind.flush
+ */
+@Component
+public class RefreshTokenBatchWriter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenBatchWriter.class);
+    
+    private static final String INSERT_REFRESH_TOKEN =
+        "INSERT INTO refresh_tokens (id, user_id, family_id, token_hash, expires_at, revoked, revoked_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_EXCESS_SESSIONS =
+        "SELECT id FROM refresh_tokens WHERE user_id = ? AND revoked = false AND expires_at > ? "
+            + "ORDER BY expires_at DESC, id DESC LIMIT ? OFFSET ?";
+    private static final String REVOKE_SESSION =
+        "UPDATE refresh_tokens SET revoked = true, revoked_at = ? WHERE id = ? AND revoked = false";
+    private static final int MAX_EVICTIONS = 1000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final UuidJdbcBinder uuids;
+    private final TransactionTemplate flushTransaction;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final int maxRetries;
+    
+    private final ConcurrentLinkedDeque<Pending> queue = new ConcurrentLinkedDeque<>();
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ReentrantLock enqueueLock = new ReentrantLock();
+    private volatile boolean closed;
+    
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private Timer flushTimer;
+    
+    public RefreshTokenBatchWriter(
+            JdbcTemplate jdbcTemplate,
+            UuidJdbcBinder uuids,
+            PlatformTransactionManager transactionManager,
+            @Value("${security.refresh-token-write-behind.enabled:false}") boolean enabled,
+            @Value("${security.refresh-token-write-behind.capacity:10000}") int capacity,
+            @Value("${security.refresh-token-write-behind.batch-size:500}") int batchSize,
+            @Value("${security.refresh-token-write-behind.sticky-sessions:false}") boolean stickySessions,
+            @Value("${security.refresh-token-write-behind.max-retries:10}") int maxRetries,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.uuids = uuids;
+        // Transacción propia: el batch no depende de la transacción de quien provoca el flush
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (enabled && !stickySessions) {
+            logger.warn("security.refresh-token-write-behind.enabled sin sticky-sessions=true: "
+                + "un token pendiente no es visible desde otros nodos; se usa escritura inmediata");
+        }
+        this.enabled = enabled && stickySessions;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRetries = Math.max(0, maxRetries);
+        meterRegistry.ifAvailable(this::bindTo);
+    }
+    
+    /**
+     * Inserta un token nuevo: encolado en modo write-behind fuera de transacción, inmediato en otro caso
+     *
+     * @param maxActiveSessions máximo de sesiones activas del usuario (0 = sin límite)
+     */
+    public void insert(RefreshToken refreshToken, int maxActiveSessions) {
+        Pending entry = new Pending(refreshToken, maxActiveSessions);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            write(List.of(entry));
+            written.increment();
+            return;
+        }
+        if (!enabled || closed) {
+            flushTransaction.executeWithoutResult(status -> write(List.of(entry)));
+            written.increment();
+            return;
+        }
+        enqueueLock.lock();
+        try {
+            if (pending.size() < capacity) {
+                pending.put(refreshToken.getToken(), entry);
+                queue.addLast(entry);
+                return;
+            }
+        } finally {
+            enqueueLock.unlock();
+        }
+        // Cola llena: este login la vacía y escribe su propio token sin encolarlo
+        flush();
+        flushTransaction.executeWithoutResult(status -> write(List.of(entry)));
+        written.increment();
+    }
+    
+    /**
+     * Escribe los tokens pendientes si alguno cumple la condición
+     */
+    public void flushIfPending(Predicate<RefreshToken> condition) {
+        if (!pending.isEmpty() && pending.values().stream().map(Pending::token).anyMatch(condition)) {
+            flush();
+        }
+    }
+    
+    public void flushIfPending(String token) {
+        if (pending.containsKey(token)) {
+            flush();
+        }
+    }
+    
+    public int pendingCount() {
+        return pending.size();
+    }
+    
+    @Scheduled(
+        initialDelayString = "${security.refresh-token-write-behind.flush-interval:20}",
+        fixedDelayString = "${security.refresh-token-write-behind.flush-interval:20}")
+    public void scheduledFlush() {
+        if (!enabled || queue.isEmpty()) {
+            return;
+        }
+        try {
+            flush();
+        } catch (Exception ex) {
+            logger.warn("No se pudieron escribir los refresh tokens pendientes ({}): {}",
+                pending.size(), ex.getMessage());
+        }
+    }
+    
+    /**
+     * Escribe todos los tokens encolados, en batches de batch-size
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Pending> drained = drain();
+            for (int from = 0; from < drained.size(); from += batchSize) {
+                int to = Math.min(from + batchSize, drained.size());
+                List<Pending> batch = drained.subList(from, to);
+                try {
+                    flushBatch(batch);
+                } catch (RuntimeException ex) {
+                    if (retryLater(ex, batch)) {
+                        // Este batch y los siguientes vuelven al principio de la cola, en su orden,
+                        // y siguen visibles como pendientes
+                        requeue(drained.subList(from, drained.size()));
+                        throw ex;
+                    }
+                    logger.warn("Batch de {} refresh tokens fallido, se reintenta fila a fila: {}",
+                        batch.size(), ex.getMessage());
+                    flushRowByRow(drained, from, to);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+    
+    /**
+     * Escribe las filas [from, to) una a una; descarta las que fallan de forma permanente
+     */
+    private void flushRowByRow(List<Pending> drained, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Pending entry = drained.get(i);
+            try {
+                flushBatch(List.of(entry));
+            } catch (RuntimeException ex) {
+                if (retryLater(ex, List.of(entry))) {
+                    requeue(drained.subList(i, drained.size()));
+                    throw ex;
+                }
+                pending.remove(entry.token().getToken());
+                dropped.increment();
+                logger.error("Refresh token {} del usuario {} descartado tras {} intentos: {}",
+                    entry.token().getId(), entry.token().getUserId(), entry.failures, ex.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Cuenta el fallo de las entradas e indica si deben volver a la cola: solo errores transitorios
+     * y mientras ninguna haya agotado max-retries
+     */
+    private boolean retryLater(RuntimeException ex, List<Pending> entries) {
+        boolean retry = isTransient(ex);
+        for (Pending entry : entries) {
+            entry.failures++;
+            retry &= entry.failures <= maxRetries;
+        }
+        return retry;
+    }
+    
+    private static boolean isTransient(RuntimeException ex) {
+        return ex instanceof TransientDataAccessException
+            || ex instanceof RecoverableDataAccessException
+            || ex instanceof DataAccessResourceFailureException
+            || ex instanceof CannotCreateTransactionException;
+    }
+    
+    @PreDestroy
+    public void close() {
+        closed = true;
+        if (!queue.isEmpty()) {
+            logger.info("Escribiendo {} refresh tokens pendientes antes de parar", pending.size());
+            flush();
+        }
+    }
+    
+    private List<Pending> drain() {
+        enqueueLock.lock();
+        try {
+            List<Pending> drained = new ArrayList<>(queue.size());
+            Pending next;
+            while ((next = queue.pollFirst()) != null) {
+                drained.add(next);
+            }
+            return drained;
+        } finally {
+            enqueueLock.unlock();
+        }
+    }
+    
+    private void requeue(List<Pending> entries) {
+        enqueueLock.lock();
+        try {
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                queue.addFirst(entries.get(i));
+            }
+        } finally {
+            enqueueLock.unlock();
+        }
+    }
+    
+    private void flushBatch(List<Pending> batch) {
+        long start = System.nanoTime();
+        flushTransaction.executeWithoutResult(status -> write(batch));
+        batch.forEach(entry -> pending.remove(entry.token().getToken()));
+        written.add(batch.size());
+        if (flushTimer != null) {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    private void write(List<Pending> entries) {
+        jdbcTemplate.batchUpdate(INSERT_REFRESH_TOKEN, entries, entries.size(), (ps, entry) -> {
+            RefreshToken token = entry.token();
+            ps.setObject(1, uuids.toJdbc(token.getId()));
+            ps.setObject(2, uuids.toJdbc(token.getUserId()));
+            ps.setObject(3, uuids.toJdbc(token.getFamilyId()));
+            ps.setBytes(4, RefreshTokenRepositoryAdapter.sha256(token.getToken()));
+            ps.setTimestamp(5, Timestamp.valueOf(token.getExpiresAt()));
+            ps.setBoolean(6, token.isRevoked());
+            ps.setTimestamp(7, token.getRevokedAt() != null ? Timestamp.valueOf(token.getRevokedAt()) : null);
+        });
+    
+        // Una pasada por usuario, después de insertar todos sus tokens del batch
+        Map<UUID, Integer> limits = new LinkedHashMap<>();
+        for (Pending entry : entries) {
+            if (entry.maxActiveSessions() > 0) {
+                limits.put(entry.token().getUserId(), entry.maxActiveSessions());
+            }
+        }
+        limits.forEach(this::evictExcessSessions);
+    }
+    
+    private void evictExcessSessions(UUID userId, int maxActiveSessions) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // Los ids se devuelven tal cual al UPDATE, en la representación de la columna (CHAR o BINARY)
+        List<Object> excess = jdbcTemplate.query(SELECT_EXCESS_SESSIONS, (rs, row) -> rs.getObject(1),
+            uuids.toJdbc(userId), now, MAX_EVICTIONS, maxActiveSessions);
+        if (!excess.isEmpty()) {
+            jdbcTemplate.batchUpdate(REVOKE_SESSION, excess, excess.size(), (ps, id) -> {
+                ps.setTimestamp(1, now);
+                ps.setObject(2, id);
+            });
+        }
+    }
+    
+    private void bindTo(MeterRegistry registry) {
+        Gauge.builder("security.refresh.write-behind.pending", this, RefreshTokenBatchWriter::pendingCount)
+            .description("Refresh tokens encolados pendientes de escribir")
+            .register(registry);
+        FunctionCounter.builder("security.refresh.write-behind.written", written, LongAdder::sum)
+            .description("Refresh tokens insertados por INSERT directo (inmediatos y en write-behind)")
+            .register(registry);
+        FunctionCounter.builder("security.refresh.write-behind.dropped", dropped, LongAdder::sum)
+            .description("Refresh tokens pendientes descartados por un error permanente o reintentos agotados")
+            .register(registry);
+        flushTimer = Timer.builder("security.refresh.write-behind.flush")
+            .description("Duración de cada batch de refresh tokens pendientes")
+            .register(registry);
+    }
+    
+    /**
+     * Token encolado; failures solo se modifica bajo flushLock
+     */
+    private static final class Pending {
+        
+        private final RefreshToken token;
+        private final int maxActiveSessions;
+        private int failures;
+        
+        Pending(RefreshToken token, int maxActiveSessions) {
+            this.token = token;
+            this.maxActiveSessions = maxActiveSessions;
+        }
+        
+        RefreshToken token() {
+            return token;
+        }
+        
+        int maxActiveSessions() {
+            return maxActiveSessions;
+        }
+    }
+}
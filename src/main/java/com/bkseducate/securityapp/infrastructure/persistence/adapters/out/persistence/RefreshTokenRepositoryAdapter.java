@@ -1,75 +1,169 @@
 package com.bkseducate.securityapp.infrastructure.persistence.adapters.out.persistence;
 
+import com.bkseducate.securityapp.domain.model.ActiveSession;
 import com.bkseducate.securityapp.domain.model.RefreshToken;
+import com.bkseducate.securityapp.domain.model.RefreshTokenWithOwner;
+import com.bkseducate.securityapp.domain.model.Role;
 import com.bkseducate.securityapp.domain.ports.RefreshTokenRepository;
 import com.bkseducate.securityapp.infrastructure.persistence.entity.RefreshTokenEntity;
+import com.bkseducate.securityapp.infrastructure.persistence.repository.RefreshTokenOwnerRow;
 import com.bkseducate.securityapp.infrastructure.persistence.repository.RefreshTokenJpaRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 /**
  * Adaptador que conecta el puerto RefreshTokenRepository con la implementación JPA
+ *
+ * En base de datos solo se guarda el SHA-256 del token: la búsqueda hashea el token presentado
+ * y compara contra el índice único de token_hash (BINARY(32)). Los refresh tokens son valores
+ * aleatorios de alta entropía, por lo que no necesitan sal ni un hash lento.
+ *
+ * Los tokens nuevos se insertan con RefreshTokenBatchWriter (opcionalmente en write-behind):
+ * antes de leer o revocar un token todavía pendiente se vacía la cola.
  */
 @Component
 public class RefreshTokenRepositoryAdapter implements RefreshTokenRepository {
     
     private final RefreshTokenJpaRepository jpaRepository;
+    private final RefreshTokenBatchWriter batchWriter;
     
-    public RefreshTokenRepositoryAdapter(RefreshTokenJpaRepository jpaRepository) {
+    public RefreshTokenRepositoryAdapter(RefreshTokenJpaRepository jpaRepository,
+                                         RefreshTokenBatchWriter batchWriter) {
         this.jpaRepository = jpaRepository;
+        this.batchWriter = batchWriter;
     }
     
     @Override
     public RefreshToken save(RefreshToken refreshToken) {
         RefreshTokenEntity entity = toEntity(refreshToken);
         RefreshTokenEntity saved = jpaRepository.save(entity);
-        return toDomain(saved);
+        return toDomain(saved, refreshToken.getToken());
+    }
+    
+    @Override
+    public void insert(RefreshToken refreshToken, int maxActiveSessions) {
+        batchWriter.insert(refreshToken, maxActiveSessions);
     }
     
     @Override
     public Optional<RefreshToken> findByToken(String token) {
-        return jpaRepository.findByToken(token)
-            .map(this::toDomain);
+        batchWriter.flushIfPending(token);
+        return jpaRepository.findByTokenHash(sha256(token))
+            .map(entity -> toDomain(entity, token));
     }
     
     @Override
-    public List<RefreshToken> findByUserId(UUID userId) {
-        return jpaRepository.findByUserId(userId).stream()
-            .map(this::toDomain)
-            .toList();
+    public Optional<RefreshTokenWithOwner> findWithOwnerByToken(String token) {
+        batchWriter.flushIfPending(token);
+        List<RefreshTokenOwnerRow> rows = jpaRepository.findWithOwnerByTokenHash(sha256(token));
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        // Todas las filas repiten el token y el usuario; solo cambian los campos del rol
+        RefreshTokenOwnerRow first = rows.get(0);
+        Set<Role> roles = new HashSet<>();
+        for (RefreshTokenOwnerRow row : rows) {
+            if (row.roleId() != null) {
+                roles.add(Role.reconstruct(row.roleId(), row.roleName(), row.roleAuthority()));
+            }
+        }
+        RefreshToken refreshToken = RefreshToken.reconstruct(
+            first.id(),
+            first.userId(),
+            first.familyId(),
+            token,
+            first.expiresAt(),
+            first.revoked(),
+            first.revokedAt()
+        );
+        return Optional.of(new RefreshTokenWithOwner(refreshToken, first.email(), first.status(), roles));
     }
     
     @Override
-    public void delete(RefreshToken refreshToken) {
-        RefreshTokenEntity entity = toEntity(refreshToken);
-        jpaRepository.delete(entity);
+    public boolean consume(RefreshToken refreshToken) {
+        batchWriter.flushIfPending(refreshToken.getToken());
+        return jpaRepository.revokeIfActive(refreshToken.getId(), LocalDateTime.now()) == 1;
     }
     
     @Override
-    public void deleteByUserId(UUID userId) {
-        jpaRepository.deleteByUserId(userId);
+    public int revokeFamily(UUID familyId) {
+        batchWriter.flushIfPending(pending -> pending.getFamilyId().equals(familyId));
+        return jpaRepository.revokeFamily(familyId, LocalDateTime.now());
+    }
+    
+    @Override
+    public boolean revokeByToken(String token) {
+        batchWriter.flushIfPending(token);
+        return jpaRepository.revokeByTokenHash(sha256(token), LocalDateTime.now()) > 0;
+    }
+    
+    @Override
+    public int revokeAllForUser(UUID userId) {
+        batchWriter.flushIfPending(pending -> pending.getUserId().equals(userId));
+        return jpaRepository.revokeAllByUserId(userId, LocalDateTime.now());
+    }
+    
+    @Override
+    public List<ActiveSession> findActiveSessions(UUID userId, ActiveSession after, int limit) {
+        batchWriter.flushIfPending(pending -> pending.getUserId().equals(userId));
+        PageRequest page = PageRequest.ofSize(limit);
+        LocalDateTime now = LocalDateTime.now();
+        return after == null
+            ? jpaRepository.findActiveSessions(userId, now, page)
+            : jpaRepository.findActiveSessionsAfter(userId, now, after.expiresAt(), after.tokenId(), page);
+    }
+    
+    @Override
+    public void delete(RefreshToken refreshToken) {
+        jpaRepository.deleteById(refreshToken.getId());
     }
     
     private RefreshTokenEntity toEntity(RefreshToken refreshToken) {
+        // Un token reconstruido sin el valor en claro conserva el hash ya almacenado
+        byte[] tokenHash = refreshToken.getToken() != null
+            ? sha256(refreshToken.getToken())
+            : jpaRepository.findById(refreshToken.getId())
+                .map(RefreshTokenEntity::getTokenHash)
+                .orElseThrow(() -> new IllegalStateException("Refresh token sin valor ni hash almacenado"));
         return new RefreshTokenEntity(
             refreshToken.getId(),
             refreshToken.getUserId(),
-            refreshToken.getToken(),
+            refreshToken.getFamilyId(),
+            tokenHash,
             refreshToken.getExpiresAt(),
-            refreshToken.isRevoked()
+            refreshToken.isRevoked(),
+            refreshToken.getRevokedAt()
         );
     }
     
-    private RefreshToken toDomain(RefreshTokenEntity entity) {
+    private RefreshToken toDomain(RefreshTokenEntity entity, String token) {
         return RefreshToken.reconstruct(
             entity.getId(),
             entity.getUserId(),
-            entity.getToken(),
+            entity.getFamilyId(),
+            token,
             entity.getExpiresAt(),
-            entity.isRevoked()
+            entity.isRevoked(),
+            entity.getRevokedAt()
         );
     }
+    
+    static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
 }
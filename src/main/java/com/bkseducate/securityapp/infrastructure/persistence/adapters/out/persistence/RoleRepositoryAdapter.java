@@ -4,8 +4,11 @@ import com.bkseducate.securityapp.domain.model.Role;
 import com.bkseducate.securityapp.domain.ports.RoleRepository;
 import com.bkseducate.securityapp.infrastructure.persistence.entity.RoleEntity;
 import com.bkseducate.securityapp.infrastructure.persistence.repository.RoleJpaRepository;
+import com.bkseducate.securityapp.infrastructure.security.RoleCatalogChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,15 +19,19 @@ import java.util.UUID;
 public class RoleRepositoryAdapter implements RoleRepository {
     
     private final RoleJpaRepository jpaRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
-    public RoleRepositoryAdapter(RoleJpaRepository jpaRepository) {
+    public RoleRepositoryAdapter(RoleJpaRepository jpaRepository, ApplicationEventPublisher eventPublisher) {
         this.jpaRepository = jpaRepository;
+        this.eventPublisher = eventPublisher;
     }
     
     @Override
     public Role save(Role role) {
         RoleEntity entity = toEntity(role);
         RoleEntity saved = jpaRepository.save(entity);
+        // Notificar para refrescar el registro de authorities
+        eventPublisher.publishEvent(new RoleCatalogChangedEvent(saved.getAuthority()));
         return toDomain(saved);
     }
     
@@ -46,6 +53,13 @@ public class RoleRepositoryAdapter implements RoleRepository {
             .map(this::toDomain);
     }
     
+    @Override
+    public List<Role> findAll() {
+        return jpaRepository.findAll().stream()
+            .map(this::toDomain)
+            .toList();
+    }
+    
     @Override
     public boolean existsByName(String name) {
         return jpaRepository.existsByName(name);
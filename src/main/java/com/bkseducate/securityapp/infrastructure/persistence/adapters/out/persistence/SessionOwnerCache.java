@@ -0,0 +1,102 @@
+package com.bkseducate.securityapp.infrastructure.persistence.adapters.out.persistence;
+
+import com.bkseducate.securityapp.domain.model.SessionOwner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caché de pocos segundos de la vista SessionOwner (época de sesión, estado, email y roles)
+ *
+ * El refresh sin estado leería el usuario en cada petición solo para comparar la época y firmar
+ * el access token; con la caché, los refresh de un mismo usuario dentro de ttl ms no tocan la base
+ * de datos.
+ *
+ * - ttl = 0 desactiva la caché (cada consulta va a la base de datos)
+ * - invalidate borra la entrada al momento y otra vez al confirmar la transacción en curso, y
+ *   avanza una generación global: una carga que empezó antes de la invalidación no se guarda, así
+ *   que la época anterior a un logout-all no vuelve a la caché
+ * - Como mucho max-size entradas: llena, se descartan las caducadas y, si sigue llena, la carga
+ *   se sirve sin guardarse
+ * - La invalidación es local: en otros nodos un cambio de época se aplica como mucho ttl ms después
+ */
+@Component
+public class SessionOwnerCache {
+    
+    private final long ttlNanos;
+    private final int maxSize;
+    
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    
+    public SessionOwnerCache(
+            @Value("${security.stateless-refresh-token.owner-cache-ttl:5000}") long ttlMillis,
+            @Value("${security.stateless-refresh-token.owner-cache-max-size:10000}") int maxSize) {
+        this.ttlNanos = Math.max(0, ttlMillis) * 1_000_000L;
+        this.maxSize = Math.max(1, maxSize);
+    }
+    
+    /**
+     * Retorna la entrada vigente o la carga con loader (un usuario inexistente no se guarda)
+     */
+    public Optional<SessionOwner> get(UUID userId, Function<UUID, Optional<SessionOwner>> loader) {
+        if (ttlNanos == 0) {
+            return loader.apply(userId);
+        }
+        long now = System.nanoTime();
+        Entry entry = entries.get(userId);
+        if (entry != null && now - entry.loadedAt() < ttlNanos) {
+            return Optional.of(entry.owner());
+        }
+        
+        long loadGeneration = generation.get();
+        Optional<SessionOwner> loaded = loader.apply(userId);
+        if (loaded.isPresent() && generation.get() == loadGeneration && hasRoom(now)) {
+            entries.put(userId, new Entry(loaded.get(), now));
+        }
+        return loaded;
+    }
+    
+    /**
+     * Descarta la entrada del usuario, ahora y al confirmar la transacción en curso si la hay
+     */
+    public void invalidate(UUID userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    private void evict(UUID userId) {
+        generation.incrementAndGet();
+        entries.remove(userId);
+    }
+    
+    private boolean hasRoom(long now) {
+        if (entries.size() < maxSize) {
+            return true;
+        }
+        entries.values().removeIf(entry -> now - entry.loadedAt() >= ttlNanos);
+        return entries.size() < maxSize;
+    }
+    
+    private record Entry(SessionOwner owner, long loadedAt) {
+    }
+}
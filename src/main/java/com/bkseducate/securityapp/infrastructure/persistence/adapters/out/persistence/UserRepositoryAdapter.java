@@ -1,36 +1,64 @@
 package com.bkseducate.securityapp.infrastructure.persistence.adapters.out.persistence;
 
 import com.bkseducate.securityapp.domain.model.Role;
+import com.bkseducate.securityapp.domain.model.SessionOwner;
 import com.bkseducate.securityapp.domain.model.User;
 import com.bkseducate.securityapp.domain.model.UserStatus;
 import com.bkseducate.securityapp.domain.ports.UserRepository;
+import com.bkseducate.securityapp.infrastructure.persistence.converter.UuidJdbcBinder;
 import com.bkseducate.securityapp.infrastructure.persistence.entity.RoleEntity;
 import com.bkseducate.securityapp.infrastructure.persistence.entity.UserEntity;
+import com.bkseducate.securityapp.infrastructure.persistence.repository.SessionOwnerRow;
 import com.bkseducate.securityapp.infrastructure.persistence.repository.UserJpaRepository;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
-import java.util.Optional;
-import java.util.Set;
-import java.util.UUID;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
  * Adaptador que conecta el puerto UserRepository con la implementación JPA
  * Convierte entre entidades de dominio y entidades JPA
+ *
+ * El alta en lote usa JDBC directamente (batch de INSERT sobre users y user_roles)
+ * en lugar de una entidad JPA por usuario. Los duplicados se detectan por la violación de la
+ * restricción única (SQLState 23xxx), sin consultas adicionales.
+ *
+ * findSessionOwner pasa por SessionOwnerCache; save, delete e incrementSessionEpoch invalidan
+ * la entrada del usuario.
  */
 @Component
 public class UserRepositoryAdapter implements UserRepository {
     
+    private static final String INSERT_USER =
+        "INSERT INTO users (id, email, password, status) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_USER_ROLE =
+        "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+    
     private final UserJpaRepository jpaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final UuidJdbcBinder uuids;
+    private final SessionOwnerCache sessionOwners;
     
-    public UserRepositoryAdapter(UserJpaRepository jpaRepository) {
+    public UserRepositoryAdapter(UserJpaRepository jpaRepository, JdbcTemplate jdbcTemplate,
+                                 UuidJdbcBinder uuids, SessionOwnerCache sessionOwners) {
         this.jpaRepository = jpaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.uuids = uuids;
+        this.sessionOwners = sessionOwners;
     }
     
     @Override
     public User save(User user) {
         UserEntity entity = toEntity(user);
         UserEntity saved = jpaRepository.save(entity);
+        sessionOwners.invalidate(user.getId());
         return toDomain(saved);
     }
     
@@ -46,15 +74,144 @@ public class UserRepositoryAdapter implements UserRepository {
             .map(this::toDomain);
     }
     
+    @Override
+    public Optional<SessionOwner> findSessionOwner(UUID id) {
+        return sessionOwners.get(id, this::loadSessionOwner);
+    }
+    
     @Override
     public boolean existsByEmail(String email) {
         return jpaRepository.existsByEmail(email);
     }
     
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jpaRepository.findExistingEmails(emails));
+    }
+    
+    @Override
+    public List<Boolean> insertAll(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        boolean[] inserted = jdbcTemplate.execute((ConnectionCallback<boolean[]>) con -> insertUsers(con, users));
+        
+        List<Object[]> userRoles = new ArrayList<>();
+        List<Boolean> result = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            boolean created = inserted[i];
+            result.add(created);
+            if (created) {
+                for (Role role : user.getRoles()) {
+                    userRoles.add(new Object[] {uuids.toJdbc(user.getId()), uuids.toJdbc(role.getId())});
+                }
+            }
+        }
+        if (!userRoles.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_USER_ROLE, userRoles);
+        }
+        return result;
+    }
+    
+    /**
+     * Batch de INSERT en users; retorna qué filas se insertaron
+     *
+     * Un email ya registrado hace fallar su fila con una violación de la restricción única. Solo esa
+     * sentencia se deshace, la transacción sigue abierta. Las filas que los update counts dan por
+     * insertadas (n o SUCCESS_NO_INFO) quedan confirmadas. Las demás se reintentan una a una, y la que
+     * vuelve a chocar es el duplicado. Así se cubren los drivers que continúan tras el error
+     * (EXECUTE_FAILED solo en el duplicado), los que se detienen en él (counts más cortos que el batch)
+     * y rewriteBatchedStatements, donde el INSERT multi-fila falla entero y todas sus filas vienen
+     * como EXECUTE_FAILED. El camino fila a fila solo se recorre cuando hay un duplicado, que es raro:
+     * el caso de uso ya descartó los emails registrados antes de hashear.
+     */
+    private boolean[] insertUsers(Connection con, List<User> users) throws SQLException {
+        boolean[] inserted = new boolean[users.size()];
+        try (PreparedStatement ps = con.prepareStatement(INSERT_USER)) {
+            for (User user : users) {
+                bindUser(ps, user);
+                ps.addBatch();
+            }
+            try {
+                ps.executeBatch();
+                Arrays.fill(inserted, true);
+                return inserted;
+            } catch (BatchUpdateException e) {
+                if (!isConstraintViolation(e)) {
+                    throw e;
+                }
+                int[] counts = e.getUpdateCounts();
+                for (int i = 0; counts != null && i < counts.length && i < inserted.length; i++) {
+                    inserted[i] = counts[i] != Statement.EXECUTE_FAILED;
+                }
+            }
+            ps.clearBatch();
+            
+            for (int i = 0; i < users.size(); i++) {
+                if (inserted[i]) {
+                    continue;
+                }
+                bindUser(ps, users.get(i));
+                try {
+                    inserted[i] = ps.executeUpdate() == 1;
+                } catch (SQLException e) {
+                    if (!isConstraintViolation(e)) {
+                        throw e;
+                    }
+                }
+            }
+        }
+        return inserted;
+    }
+    
+    private void bindUser(PreparedStatement ps, User user) throws SQLException {
+        ps.setObject(1, uuids.toJdbc(user.getId()));
+        ps.setString(2, user.getEmail());
+        ps.setString(3, user.getPassword());
+        ps.setString(4, user.getStatus().name());
+    }
+    
+    // Clase SQLState 23: violación de integridad (aquí, el índice único de users.email)
+    private static boolean isConstraintViolation(SQLException e) {
+        return e.getSQLState() != null && e.getSQLState().startsWith("23");
+    }
+    
+    @Override
+    public boolean replacePassword(UUID userId, String expectedHash, String newHash) {
+        return jpaRepository.replacePassword(userId, expectedHash, newHash) == 1;
+    }
+    
+    @Override
+    public void incrementSessionEpoch(UUID userId) {
+        jpaRepository.incrementSessionEpoch(userId);
+        sessionOwners.invalidate(userId);
+    }
+    
     @Override
     public void delete(User user) {
         UserEntity entity = toEntity(user);
         jpaRepository.delete(entity);
+        sessionOwners.invalidate(user.getId());
+    }
+    
+    private Optional<SessionOwner> loadSessionOwner(UUID id) {
+        List<SessionOwnerRow> rows = jpaRepository.findSessionOwnerRows(id);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        // Todas las filas repiten el usuario; solo cambian los campos del rol
+        SessionOwnerRow first = rows.get(0);
+        Set<Role> roles = new HashSet<>();
+        for (SessionOwnerRow row : rows) {
+            if (row.roleId() != null) {
+                roles.add(Role.reconstruct(row.roleId(), row.roleName(), row.roleAuthority()));
+            }
+        }
+        return Optional.of(new SessionOwner(id, first.email(), first.status(), roles, first.sessionEpoch()));
     }
     
     private UserEntity toEntity(User user) {
@@ -81,7 +238,8 @@ public class UserRepositoryAdapter implements UserRepository {
             entity.getEmail(),
             entity.getPassword(),
             roles,
-            entity.getStatus()
+            entity.getStatus(),
+            entity.getSessionEpoch()
         );
     }
     
@@ -0,0 +1,52 @@
+package com.bkseducate.securityapp.infrastructure.persistence.converter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Representación JDBC de los UUID para las sentencias escritas a mano (JdbcTemplate)
+ *
+ * Sigue el mismo tipo que Hibernate (hibernate.type.preferred_uuid_jdbc_type):
+ * - CHAR: texto de 36 caracteres, CHAR(36)
+ * - BINARY: 16 bytes big-endian (bits más significativos primero), BINARY(16); mismo orden
+ *   que UUID_TO_BIN(uuid) en MySQL y que el mapeo BINARY de Hibernate
+ */
+@Component
+public class UuidJdbcBinder {
+    
+    private final boolean binary;
+    
+    public UuidJdbcBinder(
+            @Value("${spring.jpa.properties.hibernate.type.preferred_uuid_jdbc_type:CHAR}") String jdbcType) {
+        this.binary = switch (jdbcType.trim().toUpperCase(Locale.ROOT)) {
+            case "CHAR", "VARCHAR" -> false;
+            case "BINARY", "VARBINARY" -> true;
+            default -> throw new IllegalArgumentException("preferred_uuid_jdbc_type no soportado: " + jdbcType);
+        };
+    }
+    
+    public boolean isBinary() {
+        return binary;
+    }
+    
+    /**
+     * Valor a enlazar con setObject para una columna UUID
+     */
+    public Object toJdbc(UUID uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        return binary ? toBytes(uuid) : uuid.toString();
+    }
+    
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+            .putLong(uuid.getMostSignificantBits())
+            .putLong(uuid.getLeastSignificantBits())
+            .array();
+    }
+}
@@ -6,39 +6,55 @@ import java.util.UUID;
 
 /**
  * Entidad JPA para RefreshToken
+ * El token no se guarda en claro: token_hash es su SHA-256 (32 bytes) con índice único
+ * El índice de expires_at sirve a la purga por lotes (RefreshTokenPurger);
+ * el de family_id, a la revocación de una sesión, y el de (user_id, expires_at), a logout-all, al límite
+ * de sesiones por usuario y al listado de sesiones
  */
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_refresh_tokens_token_hash", columnNames = "token_hash")
+}, indexes = {
+    @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at"),
+    @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id"),
+    @Index(name = "idx_refresh_tokens_user_expires", columnList = "user_id, expires_at")
+})
 public class RefreshTokenEntity {
     
     @Id
-    @Column(columnDefinition = "CHAR(36)", length = 36)
     private UUID id;
     
-
-    @Column(name = "user_id", nullable = false, columnDefinition = "CHAR(36)", length = 36)
+    @Column(name = "user_id", nullable = false)
     private UUID userId;
     
-    @Column(nullable = false, unique = true)
-    private String token;
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
     
-    @Column(nullable = false)
+    @Column(name = "token_hash", nullable = false, columnDefinition = "BINARY(32)", length = 32)
+    private byte[] tokenHash;
+    
+    @Column(name = "expires_at", nullable = false)
     private LocalDateTime expiresAt;
     
     @Column(nullable = false)
     private boolean revoked;
     
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+    
     // Constructores
     public RefreshTokenEntity() {
     }
     
-    public RefreshTokenEntity(UUID id, UUID userId, String token, 
-                            LocalDateTime expiresAt, boolean revoked) {
+    public RefreshTokenEntity(UUID id, UUID userId, UUID familyId, byte[] tokenHash, 
+                            LocalDateTime expiresAt, boolean revoked, LocalDateTime revokedAt) {
         this.id = id;
         this.userId = userId;
-        this.token = token;
+        this.familyId = familyId;
+        this.tokenHash = tokenHash;
         this.expiresAt = expiresAt;
         this.revoked = revoked;
+        this.revokedAt = revokedAt;
     }
     
     // Getters y Setters
@@ -58,12 +74,20 @@ public class RefreshTokenEntity {
         this.userId = userId;
     }
     
-    public String getToken() {
-        return token;
+    public UUID getFamilyId() {
+        return familyId;
+    }
+    
+    public void setFamilyId(UUID familyId) {
+        this.familyId = familyId;
     }
     
-    public void setToken(String token) {
-        this.token = token;
+    public byte[] getTokenHash() {
+        return tokenHash;
+    }
+    
+    public void setTokenHash(byte[] tokenHash) {
+        this.tokenHash = tokenHash;
     }
     
     public LocalDateTime getExpiresAt() {
@@ -81,4 +105,12 @@ public class RefreshTokenEntity {
     public void setRevoked(boolean revoked) {
         this.revoked = revoked;
     }
+    
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+    
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
 }
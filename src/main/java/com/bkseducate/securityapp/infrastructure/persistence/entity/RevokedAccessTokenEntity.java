@@ -0,0 +1,72 @@
+package com.bkseducate.securityapp.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA para los access tokens revocados (denylist compartida entre nodos)
+ * Cada nodo sondea la tabla por lotes usando el id autoincremental como cursor
+ */
+@Entity
+@Table(name = "revoked_access_tokens", indexes = {
+    @Index(name = "idx_revoked_access_tokens_revoked_at", columnList = "revoked_at"),
+    @Index(name = "idx_revoked_access_tokens_expires_at", columnList = "expires_at")
+})
+public class RevokedAccessTokenEntity {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, unique = true, length = 32)
+    private String jti;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+    
+    // Constructores
+    public RevokedAccessTokenEntity() {
+    }
+    
+    public RevokedAccessTokenEntity(String jti, LocalDateTime expiresAt, LocalDateTime revokedAt) {
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+        this.revokedAt = revokedAt;
+    }
+    
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getJti() {
+        return jti;
+    }
+    
+    public void setJti(String jti) {
+        this.jti = jti;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+    
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+}
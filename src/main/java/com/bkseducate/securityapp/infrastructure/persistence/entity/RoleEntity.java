@@ -13,7 +13,6 @@ import java.util.UUID;
 public class RoleEntity {
     
     @Id
-    @Column(columnDefinition = "CHAR(36)", length = 36)
     private UUID id;
     
     @Column(nullable = false, unique = true)
@@ -0,0 +1,108 @@
+package com.bkseducate.securityapp.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad JPA para las claves de firma de access tokens (key ring)
+ * La clave privada se almacena cifrada
+ * Una clave con activates_at futuro está pendiente: se publica en el JWKS pero aún no firma
+ */
+@Entity
+@Table(name = "jwt_signing_keys")
+public class SigningKeyEntity {
+    
+    @Id
+    @Column(length = 64)
+    private String kid;
+    
+    @Column(nullable = false, length = 16)
+    private String algorithm;
+    
+    @Column(name = "public_key", nullable = false, length = 1024)
+    private byte[] publicKey;
+    
+    @Column(name = "private_key", nullable = false, length = 1024)
+    private byte[] privateKey;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "activates_at", nullable = false)
+    private LocalDateTime activatesAt;
+    
+    @Column(name = "retired_at")
+    private LocalDateTime retiredAt;
+    
+    // Constructores
+    public SigningKeyEntity() {
+    }
+    
+    public SigningKeyEntity(String kid, String algorithm, byte[] publicKey, byte[] privateKey,
+                            LocalDateTime createdAt, LocalDateTime activatesAt, LocalDateTime retiredAt) {
+        this.kid = kid;
+        this.algorithm = algorithm;
+        this.publicKey = publicKey;
+        this.privateKey = privateKey;
+        this.createdAt = createdAt;
+        this.activatesAt = activatesAt;
+        this.retiredAt = retiredAt;
+    }
+    
+    // Getters y Setters
+    public String getKid() {
+        return kid;
+    }
+    
+    public void setKid(String kid) {
+        this.kid = kid;
+    }
+    
+    public String getAlgorithm() {
+        return algorithm;
+    }
+    
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+    
+    public byte[] getPublicKey() {
+        return publicKey;
+    }
+    
+    public void setPublicKey(byte[] publicKey) {
+        this.publicKey = publicKey;
+    }
+    
+    public byte[] getPrivateKey() {
+        return privateKey;
+    }
+    
+    public void setPrivateKey(byte[] privateKey) {
+        this.privateKey = privateKey;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getActivatesAt() {
+        return activatesAt;
+    }
+    
+    public void setActivatesAt(LocalDateTime activatesAt) {
+        this.activatesAt = activatesAt;
+    }
+    
+    public LocalDateTime getRetiredAt() {
+        return retiredAt;
+    }
+    
+    public void setRetiredAt(LocalDateTime retiredAt) {
+        this.retiredAt = retiredAt;
+    }
+}
@@ -16,7 +16,6 @@ import com.bkseducate.securityapp.domain.model.UserStatus;
 public class UserEntity {
     
     @Id
-    @Column(columnDefinition = "CHAR(36)", length = 36)
     private UUID id;
     
     @Column(nullable = false, unique = true)
@@ -37,6 +36,11 @@ public class UserEntity {
     @Column(nullable = false)
     private UserStatus status;
     
+    // Solo la escribe el UPDATE de incrementSessionEpoch: save() no puede pisar un incremento concurrente
+    @Column(name = "session_epoch", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "BIGINT DEFAULT 0")
+    private long sessionEpoch;
+    
     // Constructores
     public UserEntity() {
     }
@@ -91,4 +95,8 @@ public class UserEntity {
     public void setStatus(UserStatus status) {
         this.status = status;
     }
+    
+    public long getSessionEpoch() {
+        return sessionEpoch;
+    }
 }
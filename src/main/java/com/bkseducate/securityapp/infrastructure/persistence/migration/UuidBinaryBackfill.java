@@ -0,0 +1,264 @@
+package com.bkseducate.securityapp.infrastructure.persistence.migration;
+
+import com.bkseducate.securityapp.infrastructure.persistence.converter.UuidJdbcBinder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Migración en línea de las claves UUID de CHAR(36) a BINARY(16) (fase de relleno)
+ *
+ * Con security.uuid-migration.enabled=true y la aplicación todavía en modo CHAR:
+ * - Al arrancar añade a cada columna UUID una columna sombra {columna}_bin BINARY(16) NULL
+ *   (en MySQL 8, ADD COLUMN nullable al final es instantáneo y no bloquea la tabla)
+ * - Rellena las columnas sombra por lotes de batch-size filas, recorriendo cada tabla por su clave
+ *   primaria (keyset), una transacción corta por lote y una pausa de batch-pause ms entre lotes
+ * - Terminada una pasada sobre todas las tablas, repite cada interval ms para cubrir las filas
+ *   insertadas mientras tanto (los UUID no cambian: una fila convertida no vuelve a tocarse)
+ *
+ * El cambio de columnas (cutover) no se hace aquí: requiere parar la aplicación, un último
+ * relleno de las filas pendientes y renombrar columnas y claves (ver docs). Después se arranca
+ * con UUID_JDBC_TYPE=BINARY.
+ *
+ * Métricas: security.uuid-migration.converted y security.uuid-migration.batch
+ */
+@Component
+public class UuidBinaryBackfill {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UuidBinaryBackfill.class);
+    
+    private static final String SHADOW_SUFFIX = "_bin";
+    
+    // Tablas con columnas UUID: clave primaria (cursor) y columnas a convertir
+    private static final List<Table> TABLES = List.of(
+        new Table("users", List.of("id"), List.of("id")),
+        new Table("roles", List.of("id"), List.of("id")),
+        new Table("user_roles", List.of("user_id", "role_id"), List.of("user_id", "role_id")),
+        new Table("refresh_tokens", List.of("id"), List.of("id", "user_id", "family_id"))
+    );
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long intervalMillis;
+    
+    private final LongAdder converted = new LongAdder();
+    private Timer batchTimer;
+    
+    private volatile boolean prepared;
+    private volatile long nextRunAt;
+    private int tableIndex;
+    private Object[] cursor;
+    private long passConverted;
+    private boolean firstPassDone;
+    
+    public UuidBinaryBackfill(
+            JdbcTemplate jdbcTemplate,
+            UuidJdbcBinder uuids,
+            PlatformTransactionManager transactionManager,
+            @Value("${security.uuid-migration.enabled:false}") boolean enabled,
+            @Value("${security.uuid-migration.batch-size:1000}") int batchSize,
+            @Value("${security.uuid-migration.interval:600000}") long intervalMillis,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // En modo BINARY las columnas ya están migradas
+        this.enabled = enabled && !uuids.isBinary();
+        this.batchSize = Math.max(1, batchSize);
+        this.intervalMillis = intervalMillis;
+        if (enabled && uuids.isBinary()) {
+            logger.warn("security.uuid-migration.enabled ignorado: los UUID ya se almacenan como BINARY(16)");
+        }
+        meterRegistry.ifAvailable(this::bindTo);
+    }
+    
+    /**
+     * Añade las columnas sombra que falten
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepare() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (Table table : TABLES) {
+                for (String column : table.columns()) {
+                    addShadowColumnIfMissing(table.name(), column + SHADOW_SUFFIX);
+                }
+            }
+            prepared = true;
+            logger.info("Migración de UUID a BINARY(16): columnas sombra listas, comienza el relleno");
+        } catch (Exception ex) {
+            logger.warn("No se pudieron crear las columnas sombra de la migración de UUID: {}", ex.getMessage());
+        }
+    }
+    
+    /**
+     * Convierte como mucho un lote de la tabla en curso por ejecución
+     */
+    @Scheduled(
+        initialDelayString = "${security.uuid-migration.batch-pause:100}",
+        fixedDelayString = "${security.uuid-migration.batch-pause:100}")
+    public void backfillBatch() {
+        if (!prepared || System.currentTimeMillis() < nextRunAt) {
+            return;
+        }
+        Table table = TABLES.get(tableIndex);
+        try {
+            long start = System.nanoTime();
+            boolean more = transactionTemplate.execute(status -> convertBatch(table));
+            if (batchTimer != null) {
+                batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (!more) {
+                nextTable();
+            }
+        } catch (Exception ex) {
+            logger.warn("No se pudo convertir un lote de {}: {}", table.name(), ex.getMessage());
+            // Se reintenta el mismo lote tras el intervalo
+            nextRunAt = System.currentTimeMillis() + intervalMillis;
+        }
+    }
+    
+    public long convertedCount() {
+        return converted.sum();
+    }
+    
+    /**
+     * @return true si el lote estaba completo (probablemente quedan más filas en la tabla)
+     */
+    private boolean convertBatch(Table table) {
+        List<String> shadows = table.columns().stream().map(column -> column + SHADOW_SUFFIX).toList();
+        String select = "SELECT " + String.join(", ", table.keys()) + ", "
+            + String.join(", ", table.columns()) + ", " + String.join(", ", shadows)
+            + " FROM " + table.name()
+            + (cursor != null ? " WHERE " + keysetCondition(table.keys()) : "")
+            + " ORDER BY " + String.join(", ", table.keys()) + " LIMIT ?";
+        
+        List<Object> params = new ArrayList<>();
+        if (cursor != null) {
+            params.addAll(keysetParams(cursor));
+        }
+        params.add(batchSize);
+        
+        int keyCount = table.keys().size();
+        int columnCount = table.columns().size();
+        List<Object[]> rows = jdbcTemplate.query(select, (rs, rowNum) -> {
+            Object[] row = new Object[keyCount + columnCount * 2];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = rs.getObject(i + 1);
+            }
+            return row;
+        }, params.toArray());
+        if (rows.isEmpty()) {
+            return false;
+        }
+        
+        // Solo las filas con alguna columna sombra vacía
+        List<Object[]> updates = new ArrayList<>();
+        for (Object[] row : rows) {
+            boolean pending = false;
+            for (int c = 0; c < columnCount; c++) {
+                pending |= row[keyCount + columnCount + c] == null;
+            }
+            if (!pending) {
+                continue;
+            }
+            Object[] update = new Object[columnCount + keyCount];
+            for (int c = 0; c < columnCount; c++) {
+                update[c] = UuidJdbcBinder.toBytes(UUID.fromString(row[keyCount + c].toString()));
+            }
+            System.arraycopy(row, 0, update, columnCount, keyCount);
+            updates.add(update);
+        }
+        if (!updates.isEmpty()) {
+            String update = "UPDATE " + table.name() + " SET "
+                + shadows.stream().map(shadow -> shadow + " = ?").collect(Collectors.joining(", "))
+                + " WHERE " + table.keys().stream().map(key -> key + " = ?").collect(Collectors.joining(" AND "));
+            jdbcTemplate.batchUpdate(update, updates);
+            converted.add(updates.size());
+            passConverted += updates.size();
+        }
+        
+        Object[] last = rows.get(rows.size() - 1);
+        cursor = new Object[keyCount];
+        System.arraycopy(last, 0, cursor, 0, keyCount);
+        return rows.size() == batchSize;
+    }
+    
+    private void nextTable() {
+        cursor = null;
+        tableIndex++;
+        if (tableIndex < TABLES.size()) {
+            return;
+        }
+        tableIndex = 0;
+        if (!firstPassDone) {
+            firstPassDone = true;
+            logger.info("Migración de UUID a BINARY(16): relleno completo ({} filas); "
+                + "las nuevas se convierten cada {} ms hasta el cutover", passConverted, intervalMillis);
+        } else if (passConverted > 0) {
+            logger.info("Migración de UUID a BINARY(16): {} filas nuevas convertidas", passConverted);
+        }
+        passConverted = 0;
+        nextRunAt = System.currentTimeMillis() + intervalMillis;
+    }
+    
+    private void addShadowColumnIfMissing(String table, String column) {
+        try {
+            jdbcTemplate.queryForList("SELECT " + column + " FROM " + table + " WHERE 1 = 0");
+        } catch (BadSqlGrammarException missing) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " BINARY(16) NULL");
+            logger.info("Columna sombra {}.{} creada", table, column);
+        }
+    }
+    
+    /**
+     * Condición "clave > cursor" en orden lexicográfico (una o dos columnas)
+     */
+    private static String keysetCondition(List<String> keys) {
+        if (keys.size() == 1) {
+            return keys.get(0) + " > ?";
+        }
+        return "(" + keys.get(0) + " > ? OR (" + keys.get(0) + " = ? AND " + keys.get(1) + " > ?))";
+    }
+    
+    private static List<Object> keysetParams(Object[] cursor) {
+        if (cursor.length == 1) {
+            return List.of(cursor[0]);
+        }
+        return List.of(cursor[0], cursor[0], cursor[1]);
+    }
+    
+    private void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("security.uuid-migration.converted", converted, LongAdder::sum)
+            .description("Filas con sus UUID copiados a las columnas BINARY(16)")
+            .register(registry);
+        batchTimer = Timer.builder("security.uuid-migration.batch")
+            .description("Duración de cada lote de la migración de UUID (lectura y UPDATE)")
+            .register(registry);
+    }
+    
+    private record Table(String name, List<String> keys, List<String> columns) {
+    }
+}
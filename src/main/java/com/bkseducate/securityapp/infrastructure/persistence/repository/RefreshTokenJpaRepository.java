@@ -1,9 +1,16 @@
 package com.bkseducate.securityapp.infrastructure.persistence.repository;
 
+import com.bkseducate.securityapp.domain.model.ActiveSession;
 import com.bkseducate.securityapp.infrastructure.persistence.entity.RefreshTokenEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,9 +21,78 @@ import java.util.UUID;
 @Repository
 public interface RefreshTokenJpaRepository extends JpaRepository<RefreshTokenEntity, UUID> {
     
-    Optional<RefreshTokenEntity> findByToken(String token);
+    Optional<RefreshTokenEntity> findByTokenHash(byte[] tokenHash);
     
-    List<RefreshTokenEntity> findByUserId(UUID userId);
+    /**
+     * Token, estado y email del usuario y sus roles en una sola sentencia (una fila por rol)
+     * Sustituye a la búsqueda del token, la del usuario y la carga EAGER de sus roles
+     */
+    @Query("SELECT new com.bkseducate.securityapp.infrastructure.persistence.repository.RefreshTokenOwnerRow("
+        + "r.id, r.userId, r.familyId, r.expiresAt, r.revoked, r.revokedAt, "
+        + "u.email, u.status, ro.id, ro.name, ro.authority) "
+        + "FROM RefreshTokenEntity r JOIN UserEntity u ON u.id = r.userId LEFT JOIN u.roles ro "
+        + "WHERE r.tokenHash = :tokenHash")
+    List<RefreshTokenOwnerRow> findWithOwnerByTokenHash(@Param("tokenHash") byte[] tokenHash);
     
-    void deleteByUserId(UUID userId);
+    /**
+     * Primera página de sesiones activas (proyección, sin cargar entidades)
+     */
+    @Query("SELECT new com.bkseducate.securityapp.domain.model.ActiveSession(r.id, r.familyId, r.expiresAt) "
+        + "FROM RefreshTokenEntity r WHERE r.userId = :userId AND r.revoked = false AND r.expiresAt > :now "
+        + "ORDER BY r.expiresAt DESC, r.id DESC")
+    List<ActiveSession> findActiveSessions(
+        @Param("userId") UUID userId,
+        @Param("now") LocalDateTime now,
+        Pageable pageable);
+    
+    /**
+     * Página siguiente a (afterExpiresAt, afterId), recorriendo el índice (user_id, expires_at)
+     */
+    @Query("SELECT new com.bkseducate.securityapp.domain.model.ActiveSession(r.id, r.familyId, r.expiresAt) "
+        + "FROM RefreshTokenEntity r WHERE r.userId = :userId AND r.revoked = false AND r.expiresAt > :now "
+        + "AND (r.expiresAt < :afterExpiresAt OR (r.expiresAt = :afterExpiresAt AND r.id < :afterId)) "
+        + "ORDER BY r.expiresAt DESC, r.id DESC")
+    List<ActiveSession> findActiveSessionsAfter(
+        @Param("userId") UUID userId,
+        @Param("now") LocalDateTime now,
+        @Param("afterExpiresAt") LocalDateTime afterExpiresAt,
+        @Param("afterId") UUID afterId,
+        Pageable pageable);
+    
+    /**
+     * Compare-and-set: revoca el token solo si sigue activo (0 filas si ya estaba revocado)
+     */
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity r SET r.revoked = true, r.revokedAt = :now "
+        + "WHERE r.id = :id AND r.revoked = false")
+    int revokeIfActive(@Param("id") UUID id, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity r SET r.revoked = true, r.revokedAt = :now "
+        + "WHERE r.familyId = :familyId AND r.revoked = false")
+    int revokeFamily(@Param("familyId") UUID familyId, @Param("now") LocalDateTime now);
+    
+    /**
+     * Revoca por hash conservando la fecha de una revocación anterior: devuelve 1 si el token
+     * existe, aunque ya estuviera revocado
+     */
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity r SET r.revoked = true, r.revokedAt = COALESCE(r.revokedAt, :now) "
+        + "WHERE r.tokenHash = :tokenHash")
+    int revokeByTokenHash(@Param("tokenHash") byte[] tokenHash, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity r SET r.revoked = true, r.revokedAt = :now "
+        + "WHERE r.userId = :userId AND r.revoked = false")
+    int revokeAllByUserId(@Param("userId") UUID userId, @Param("now") LocalDateTime now);
+    
+    /**
+     * Lote de ids de tokens vencidos, recorriendo el índice de expires_at
+     */
+    @Query("SELECT r.id FROM RefreshTokenEntity r WHERE r.expiresAt < :now ORDER BY r.expiresAt")
+    List<UUID> findExpiredIds(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    @Modifying
+    @Query("DELETE FROM RefreshTokenEntity r WHERE r.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<UUID> ids);
 }
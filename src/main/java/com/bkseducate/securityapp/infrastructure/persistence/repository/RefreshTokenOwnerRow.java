@@ -0,0 +1,24 @@
+package com.bkseducate.securityapp.infrastructure.persistence.repository;
+
+import com.bkseducate.securityapp.domain.model.UserStatus;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Fila plana de la consulta token + usuario + roles: una por rol del usuario
+ * (una sola, con los campos del rol a null, si no tiene roles)
+ */
+public record RefreshTokenOwnerRow(
+    UUID id,
+    UUID userId,
+    UUID familyId,
+    LocalDateTime expiresAt,
+    boolean revoked,
+    LocalDateTime revokedAt,
+    String email,
+    UserStatus status,
+    UUID roleId,
+    String roleName,
+    String roleAuthority
+) {
+}
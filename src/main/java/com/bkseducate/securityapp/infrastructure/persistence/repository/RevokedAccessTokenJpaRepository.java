@@ -0,0 +1,34 @@
+package com.bkseducate.securityapp.infrastructure.persistence.repository;
+
+import com.bkseducate.securityapp.infrastructure.persistence.entity.RevokedAccessTokenEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio JPA para RevokedAccessTokenEntity
+ */
+@Repository
+public interface RevokedAccessTokenJpaRepository extends JpaRepository<RevokedAccessTokenEntity, Long> {
+    
+    /**
+     * Lote de revocaciones vigentes registradas desde revokedSince, paginado por id (keyset)
+     */
+    @Query("SELECT r FROM RevokedAccessTokenEntity r WHERE r.revokedAt >= :revokedSince AND r.id > :afterId "
+        + "AND r.expiresAt > :now ORDER BY r.id")
+    List<RevokedAccessTokenEntity> findBatch(
+        @Param("revokedSince") LocalDateTime revokedSince,
+        @Param("afterId") long afterId,
+        @Param("now") LocalDateTime now,
+        Pageable pageable);
+    
+    @Modifying
+    @Query("DELETE FROM RevokedAccessTokenEntity r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
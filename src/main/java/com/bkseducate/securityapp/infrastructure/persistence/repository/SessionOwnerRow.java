@@ -0,0 +1,18 @@
+package com.bkseducate.securityapp.infrastructure.persistence.repository;
+
+import com.bkseducate.securityapp.domain.model.UserStatus;
+import java.util.UUID;
+
+/**
+ * Fila plana de la consulta época + usuario + roles: una por rol del usuario
+ * (una sola, con los campos del rol a null, si no tiene roles)
+ */
+public record SessionOwnerRow(
+    String email,
+    UserStatus status,
+    long sessionEpoch,
+    UUID roleId,
+    String roleName,
+    String roleAuthority
+) {
+}
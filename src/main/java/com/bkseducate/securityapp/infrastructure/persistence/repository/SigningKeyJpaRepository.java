@@ -0,0 +1,38 @@
+package com.bkseducate.securityapp.infrastructure.persistence.repository;
+
+import com.bkseducate.securityapp.infrastructure.persistence.entity.SigningKeyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio JPA para SigningKeyEntity
+ */
+@Repository
+public interface SigningKeyJpaRepository extends JpaRepository<SigningKeyEntity, String> {
+    
+    /**
+     * Claves pendientes, activas y retiradas que aún deben aceptarse para verificación
+     */
+    @Query("SELECT k FROM SigningKeyEntity k WHERE k.retiredAt IS NULL OR k.retiredAt > :retiredAfter "
+        + "ORDER BY k.activatesAt DESC, k.kid DESC")
+    List<SigningKeyEntity> findVerificationKeys(@Param("retiredAfter") LocalDateTime retiredAfter);
+    
+    /**
+     * Retira todas las claves ya activadas salvo la indicada (activación de la siguiente clave o
+     * arranque concurrente de varios nodos); las pendientes no se tocan
+     */
+    @Modifying
+    @Query("UPDATE SigningKeyEntity k SET k.retiredAt = :now "
+        + "WHERE k.kid <> :kid AND k.retiredAt IS NULL AND k.activatesAt <= :now")
+    int retireActiveExcept(@Param("kid") String kid, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM SigningKeyEntity k WHERE k.retiredAt IS NOT NULL AND k.retiredAt < :before")
+    int deleteRetiredBefore(@Param("before") LocalDateTime before);
+}
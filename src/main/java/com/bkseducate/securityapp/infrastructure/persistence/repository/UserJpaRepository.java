@@ -2,8 +2,13 @@ package com.bkseducate.securityapp.infrastructure.persistence.repository;
 
 import com.bkseducate.securityapp.infrastructure.persistence.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,4 +21,25 @@ public interface UserJpaRepository extends JpaRepository<UserEntity, UUID> {
     Optional<UserEntity> findByEmail(String email);
     
     boolean existsByEmail(String email);
+    
+    @Query("SELECT u.email FROM UserEntity u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
+    /**
+     * Época de sesión, estado, email y roles del usuario en una sola sentencia (una fila por rol),
+     * sin cargar la entidad ni su colección EAGER de roles
+     */
+    @Query("SELECT new com.bkseducate.securityapp.infrastructure.persistence.repository.SessionOwnerRow("
+        + "u.email, u.status, u.sessionEpoch, ro.id, ro.name, ro.authority) "
+        + "FROM UserEntity u LEFT JOIN u.roles ro WHERE u.id = :id")
+    List<SessionOwnerRow> findSessionOwnerRows(@Param("id") UUID id);
+    
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.password = :newHash WHERE u.id = :id AND u.password = :expectedHash")
+    int replacePassword(@Param("id") UUID id, @Param("expectedHash") String expectedHash,
+                        @Param("newHash") String newHash);
+    
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.sessionEpoch = u.sessionEpoch + 1 WHERE u.id = :id")
+    int incrementSessionEpoch(@Param("id") UUID id);
 }
@@ -0,0 +1,291 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import com.bkseducate.securityapp.domain.model.VerifiedAccessToken;
+import com.bkseducate.securityapp.domain.ports.AccessTokenRevocationService;
+import com.bkseducate.securityapp.infrastructure.persistence.entity.RevokedAccessTokenEntity;
+import com.bkseducate.securityapp.infrastructure.persistence.repository.RevokedAccessTokenJpaRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Denylist en memoria de access tokens revocados (por jti)
+ *
+ * - Filtro de Bloom delante de un mapa exacto jti → exp: la consulta por request es O(1)
+ *   y, para tokens no revocados (el caso normal), casi siempre se resuelve sin tocar el mapa
+ * - Las entradas se descartan al vencer el exp del token; el filtro de Bloom se reconstruye
+ *   en cada sincronización a partir de las entradas vigentes
+ * - Sincronización entre nodos: cada nodo sondea la tabla revoked_access_tokens por lotes
+ *   (keyset por id) desde la última sincronización, con un solape para absorber commits
+ *   tardíos y desfases de reloj
+ *
+ * - revoke: INSERT JDBC directo; una violación de la clave única de jti (dos logouts concurrentes
+ *   con el mismo token) se trata como "ya revocado". MySQL y H2 deshacen solo la sentencia
+ *   fallida, así que la transacción del caso de uso sigue siendo válida. La entrada en memoria
+ *   se publica después del commit
+ *
+ * Los tokens sin jti (emitidos antes de introducir el claim) no se pueden revocar.
+ * Los refresh tokens sin estado revocados en el logout se guardan igual, por su tokenId.
+ */
+@Component
+public class AccessTokenDenylist implements AccessTokenRevocationService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AccessTokenDenylist.class);
+    
+    private static final int BLOOM_HASHES = 4;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final String INSERT_REVOKED =
+        "INSERT INTO revoked_access_tokens (jti, expires_at, revoked_at) VALUES (?, ?, ?)";
+    
+    private final RevokedAccessTokenJpaRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration syncOverlap;
+    private final int bloomMask;
+    
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile AtomicLongArray bloom;
+    private volatile LocalDateTime syncedUntil;
+    
+    private final LongAdder rejections = new LongAdder();
+    
+    @Autowired
+    public AccessTokenDenylist(
+            RevokedAccessTokenJpaRepository repository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${security.revocation.batch-size:500}") int batchSize,
+            @Value("${security.revocation.sync-overlap:30000}") long syncOverlapMillis,
+            @Value("${security.revocation.bloom-bits:1048576}") int bloomBits,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.syncOverlap = Duration.ofMillis(syncOverlapMillis);
+        this.bloomMask = bloomSize(bloomBits) - 1;
+        this.bloom = new AtomicLongArray(bloomSize(bloomBits) / Long.SIZE);
+        meterRegistry.ifAvailable(this::bindTo);
+    }
+    
+    /**
+     * Denylist solo en memoria, sin persistencia ni sincronización entre nodos
+     */
+    public AccessTokenDenylist(int bloomBits) {
+        this.repository = null;
+        this.jdbcTemplate = null;
+        this.transactionTemplate = null;
+        this.batchSize = 0;
+        this.syncOverlap = Duration.ZERO;
+        this.bloomMask = bloomSize(bloomBits) - 1;
+        this.bloom = new AtomicLongArray(bloomSize(bloomBits) / Long.SIZE);
+    }
+    
+    @Override
+    public void revoke(VerifiedAccessToken token) {
+        revoke(token.tokenId(), token.expiresAt());
+    }
+    
+    @Override
+    public boolean isRevoked(VerifiedAccessToken token) {
+        return isRevoked(token.tokenId());
+    }
+    
+    @Override
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        // Se escribe en la transacción del caso de uso; el resto de nodos lo recoge al sondear
+        if (repository != null) {
+            try {
+                jdbcTemplate.update(INSERT_REVOKED,
+                    jti, Timestamp.valueOf(toLocalDateTime(expiresAt)), Timestamp.valueOf(LocalDateTime.now()));
+            } catch (DuplicateKeyException alreadyRevoked) {
+                logger.debug("Access token {} ya revocado", jti);
+            }
+        }
+        long expiresAtMillis = expiresAt.toEpochMilli();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(jti, expiresAtMillis);
+                }
+            });
+        } else {
+            add(jti, expiresAtMillis);
+        }
+    }
+    
+    @Override
+    public boolean isRevoked(String jti) {
+        if (jti == null || !mightContain(jti)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        if (expiresAt == null || expiresAt <= System.currentTimeMillis()) {
+            return false;
+        }
+        rejections.increment();
+        return true;
+    }
+    
+    public int size() {
+        return revoked.size();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        synchronize();
+    }
+    
+    /**
+     * Incorpora las revocaciones de otros nodos y descarta las entradas vencidas
+     */
+    @Scheduled(
+        initialDelayString = "${security.revocation.poll-interval:5000}",
+        fixedDelayString = "${security.revocation.poll-interval:5000}")
+    public void synchronize() {
+        if (repository == null) {
+            purgeExpired();
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime since = syncedUntil != null ? syncedUntil.minus(syncOverlap) : EPOCH;
+            long afterId = 0;
+            int loaded = 0;
+            List<RevokedAccessTokenEntity> batch;
+            do {
+                batch = repository.findBatch(since, afterId, now, PageRequest.ofSize(batchSize));
+                for (RevokedAccessTokenEntity entity : batch) {
+                    add(entity.getJti(), entity.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                    afterId = entity.getId();
+                }
+                loaded += batch.size();
+            } while (batch.size() == batchSize);
+            syncedUntil = now;
+            
+            transactionTemplate.executeWithoutResult(status -> repository.deleteExpired(now));
+            purgeExpired();
+            if (loaded > 0) {
+                logger.debug("Denylist sincronizada: {} revocaciones leídas, {} vigentes", loaded, revoked.size());
+            }
+        } catch (Exception ex) {
+            logger.warn("No se pudo sincronizar la denylist de access tokens: {}", ex.getMessage());
+        }
+    }
+    
+    private void add(String jti, long expiresAtMillis) {
+        revoked.put(jti, expiresAtMillis);
+        // Las inserciones se serializan con la reconstrucción para no perder bits
+        synchronized (this) {
+            setBits(bloom, jti);
+        }
+    }
+    
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        if (!revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+            return;
+        }
+        synchronized (this) {
+            AtomicLongArray rebuilt = new AtomicLongArray(bloom.length());
+            for (String jti : revoked.keySet()) {
+                setBits(rebuilt, jti);
+            }
+            bloom = rebuilt;
+        }
+    }
+    
+    private boolean mightContain(String jti) {
+        AtomicLongArray bits = bloom;
+        long hash = hash64(jti);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (h1 + i * h2) & bloomMask;
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void setBits(AtomicLongArray bits, String jti) {
+        long hash = hash64(jti);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (h1 + i * h2) & bloomMask;
+            bits.getAndUpdate(bit >>> 6, word -> word | (1L << bit));
+        }
+    }
+    
+    /**
+     * FNV-1a de 64 bits con mezcla final (fmix64 de MurmurHash3)
+     */
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+    
+    private static int bloomSize(int bloomBits) {
+        if (bloomBits < Long.SIZE) {
+            throw new IllegalArgumentException("security.revocation.bloom-bits debe ser al menos 64");
+        }
+        // Potencia de dos para indexar con máscara
+        return Integer.highestOneBit(bloomBits);
+    }
+    
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+    
+    private void bindTo(MeterRegistry registry) {
+        Gauge.builder("security.jwt.revoked.size", this, AccessTokenDenylist::size)
+            .description("Access tokens revocados vigentes en la denylist")
+            .register(registry);
+        FunctionCounter.builder("security.jwt.revoked.rejections", rejections, LongAdder::sum)
+            .description("Requests rechazados por usar un access token revocado")
+            .register(registry);
+    }
+}
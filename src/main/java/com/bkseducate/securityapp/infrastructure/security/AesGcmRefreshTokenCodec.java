@@ -0,0 +1,145 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import com.bkseducate.securityapp.domain.model.StatelessRefreshToken;
+import com.bkseducate.securityapp.domain.ports.StatelessRefreshTokenCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Refresh tokens sin estado cifrados y autenticados con AES-GCM
+ *
+ * Formato (base64url sin relleno, 114 caracteres):
+ * versión (1 byte) | nonce (12) | cifrado de [userId (16) | tokenId (16) | iat (8) | exp (8) | época (8)] | tag (16)
+ *
+ * - La versión va como dato adicional autenticado: cambiarla invalida el tag
+ * - Nonce aleatorio por token; con una misma clave el límite seguro es del orden de 2^32 tokens
+ * - Sin security.stateless-refresh-token.encryption-key, la clave se deriva de jwt.secret con una
+ *   etiqueta propia (distinta de la que cifra las claves de firma)
+ *
+ * Un token que no tiene este formato (los de base de datos son UUID de 36 caracteres) se descarta
+ * por longitud, sin descifrar.
+ */
+@Component
+public class AesGcmRefreshTokenCodec implements StatelessRefreshTokenCodec {
+    
+    private static final byte VERSION = 1;
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final int TOKEN_ID_LENGTH = 16;
+    private static final int PLAINTEXT_LENGTH = 16 + TOKEN_ID_LENGTH + 8 + 8 + 8;
+    private static final int TOKEN_LENGTH = 1 + GCM_IV_LENGTH + PLAINTEXT_LENGTH + GCM_TAG_BITS / 8;
+    private static final int ENCODED_LENGTH = (TOKEN_LENGTH * 4 + 2) / 3;
+    private static final byte[] ASSOCIATED_DATA = {VERSION};
+    
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    
+    private final boolean enabled;
+    private final SecretKeySpec key;
+    private final SecureRandom secureRandom = new SecureRandom();
+    
+    public AesGcmRefreshTokenCodec(
+            @Value("${security.stateless-refresh-token.enabled:false}") boolean enabled,
+            @Value("${security.stateless-refresh-token.encryption-key:}") String encryptionKey,
+            @Value("${jwt.secret}") String secret) {
+        this.enabled = enabled;
+        this.key = encryptionKey == null || encryptionKey.isBlank()
+            ? deriveKey(secret)
+            : decodeKey(encryptionKey);
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    @Override
+    public String issue(UUID userId, long sessionEpoch, Instant expiresAt) {
+        byte[] tokenId = new byte[TOKEN_ID_LENGTH];
+        byte[] iv = new byte[GCM_IV_LENGTH];
+        secureRandom.nextBytes(tokenId);
+        secureRandom.nextBytes(iv);
+        
+        byte[] plain = ByteBuffer.allocate(PLAINTEXT_LENGTH)
+            .putLong(userId.getMostSignificantBits())
+            .putLong(userId.getLeastSignificantBits())
+            .put(tokenId)
+            .putLong(Instant.now().getEpochSecond())
+            .putLong(expiresAt.getEpochSecond())
+            .putLong(sessionEpoch)
+            .array();
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            cipher.updateAAD(ASSOCIATED_DATA);
+            byte[] encrypted = cipher.doFinal(plain);
+            byte[] token = ByteBuffer.allocate(TOKEN_LENGTH).put(VERSION).put(iv).put(encrypted).array();
+            return BASE64_URL.encodeToString(token);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo cifrar el refresh token", e);
+        }
+    }
+    
+    @Override
+    public Optional<StatelessRefreshToken> decode(String token) {
+        if (!enabled || token == null || token.length() != ENCODED_LENGTH) {
+            return Optional.empty();
+        }
+        try {
+            byte[] raw = Base64.getUrlDecoder().decode(token);
+            if (raw.length != TOKEN_LENGTH || raw[0] != VERSION) {
+                return Optional.empty();
+            }
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_BITS, raw, 1, GCM_IV_LENGTH));
+            cipher.updateAAD(ASSOCIATED_DATA);
+            ByteBuffer plain = ByteBuffer.wrap(
+                cipher.doFinal(raw, 1 + GCM_IV_LENGTH, raw.length - 1 - GCM_IV_LENGTH));
+            
+            UUID userId = new UUID(plain.getLong(), plain.getLong());
+            byte[] tokenId = new byte[TOKEN_ID_LENGTH];
+            plain.get(tokenId);
+            return Optional.of(new StatelessRefreshToken(
+                BASE64_URL.encodeToString(tokenId),
+                userId,
+                Instant.ofEpochSecond(plain.getLong()),
+                Instant.ofEpochSecond(plain.getLong()),
+                plain.getLong()));
+        } catch (IllegalArgumentException | GeneralSecurityException e) {
+            // Base64 inválido o tag incorrecto (token manipulado o cifrado con otra clave)
+            return Optional.empty();
+        }
+    }
+    
+    private static SecretKeySpec deriveKey(String secret) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update("stateless-refresh-token-encryption:".getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(digest.digest(secret.getBytes(StandardCharsets.UTF_8)), "AES");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+    
+    private static SecretKeySpec decodeKey(String encryptionKey) {
+        byte[] bytes = Base64.getDecoder().decode(encryptionKey.trim());
+        if (bytes.length != 16 && bytes.length != 24 && bytes.length != 32) {
+            throw new IllegalArgumentException(
+                "security.stateless-refresh-token.encryption-key debe ser una clave AES de 16, 24 o 32 bytes en base64");
+        }
+        return new SecretKeySpec(bytes, "AES");
+    }
+}
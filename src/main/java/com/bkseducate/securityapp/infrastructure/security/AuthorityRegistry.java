@@ -0,0 +1,297 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import com.bkseducate.securityapp.domain.model.Role;
+import com.bkseducate.securityapp.domain.ports.RoleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro en memoria de las authorities del catálogo de roles
+ *
+ * Mantiene una única instancia inmutable de Role y GrantedAuthority por authority,
+ * cargadas desde RoleRepository al arrancar y refrescadas cuando cambia un rol
+ * (y periódicamente, para recoger cambios hechos por otros nodos).
+ *
+ * Resolver el claim "roles" de un token es una búsqueda en un mapa: las listas de
+ * authorities se memorizan por combinación de roles y se reutilizan entre requests.
+ *
+ * Fallback: un authority que no existe en el catálogo se ignora (no se concede).
+ *
+ * Formato compacto de roles: cada catálogo define un layout de bits (authorities
+ * ordenadas alfabéticamente, un bit por authority) identificado por una huella del
+ * catálogo. Los tokens compactos llevan la versión y la máscara en lugar de la lista
+ * de strings. Se conservan los layouts de catálogos anteriores para poder decodificar
+ * tokens emitidos antes de un cambio de roles.
+ */
+@Component
+public class AuthorityRegistry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuthorityRegistry.class);
+    
+    // Límite de combinaciones distintas memorizadas (el catálogo es pequeño)
+    private static final int MAX_MEMOIZED_COMBINATIONS = 1024;
+    
+    // Una máscara long admite hasta 63 authorities (bit de signo sin usar)
+    private static final int MAX_MASK_BITS = 63;
+    
+    // Layouts anteriores conservados para tokens emitidos antes de un cambio de catálogo
+    private static final int MAX_RETAINED_LAYOUTS = 8;
+    
+    // Ante una versión desconocida se recarga el catálogo como mucho una vez por intervalo
+    private static final long UNKNOWN_VERSION_REFRESH_INTERVAL_MS = 5_000;
+    
+    private final RoleRepository roleRepository;
+    
+    private volatile Catalog catalog = Catalog.EMPTY;
+    private volatile Map<String, RoleLayout> layouts = Map.of();
+    private volatile long lastUnknownVersionRefresh;
+    
+    public AuthorityRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoleCatalogChanged(RoleCatalogChangedEvent event) {
+        refresh();
+    }
+    
+    @Scheduled(
+        initialDelayString = "${security.authorities.refresh-interval:300000}",
+        fixedDelayString = "${security.authorities.refresh-interval:300000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+    
+    /**
+     * Recarga el catálogo desde RoleRepository
+     */
+    public void refresh() {
+        try {
+            load(roleRepository.findAll());
+        } catch (Exception ex) {
+            logger.warn("No se pudo refrescar el registro de authorities: {}", ex.getMessage());
+        }
+    }
+    
+    /**
+     * Reemplaza el catálogo por el conjunto de roles dado
+     */
+    public void load(Collection<Role> roles) {
+        Map<String, Role> byAuthority = new HashMap<>();
+        Map<String, GrantedAuthority> authorities = new HashMap<>();
+        for (Role role : roles) {
+            Role canonical = Role.reconstruct(role.getId(), role.getName(), role.getAuthority());
+            byAuthority.put(canonical.getAuthority(), canonical);
+            authorities.put(canonical.getAuthority(), new SimpleGrantedAuthority(canonical.getAuthority()));
+        }
+        RoleLayout layout = RoleLayout.of(byAuthority.keySet());
+        Catalog previous;
+        synchronized (this) {
+            previous = catalog;
+            catalog = new Catalog(Map.copyOf(byAuthority), Map.copyOf(authorities), new ConcurrentHashMap<>(), layout);
+            if (layout != null) {
+                retainLayout(layout);
+            }
+        }
+        if (!previous.roles().keySet().equals(byAuthority.keySet())) {
+            logger.info("Registro de authorities cargado: {}", byAuthority.keySet());
+        }
+    }
+    
+    /**
+     * Resuelve el claim de roles de un token a authorities canónicas
+     * La lista retornada es inmutable y compartida entre requests
+     */
+    public List<GrantedAuthority> authoritiesFor(Set<String> roleClaims) {
+        if (roleClaims.isEmpty()) {
+            return List.of();
+        }
+        Catalog current = catalog;
+        List<GrantedAuthority> memoized = current.combinations().get(roleClaims);
+        if (memoized != null) {
+            return memoized;
+        }
+    
+        List<GrantedAuthority> resolved = new ArrayList<>(roleClaims.size());
+        for (String claim : roleClaims) {
+            GrantedAuthority authority = current.authorities().get(claim);
+            if (authority != null) {
+                resolved.add(authority);
+            } else {
+                logger.debug("Authority desconocida en token, se ignora: {}", claim);
+            }
+        }
+        List<GrantedAuthority> result = List.copyOf(resolved);
+        if (current.combinations().size() < MAX_MEMOIZED_COMBINATIONS) {
+            current.combinations().putIfAbsent(Set.copyOf(roleClaims), result);
+        }
+        return result;
+    }
+    
+    /**
+     * Resuelve el claim de roles de un token a instancias canónicas de Role
+     */
+    public Set<Role> rolesFor(Set<String> roleClaims) {
+        if (roleClaims.isEmpty()) {
+            return Set.of();
+        }
+        Map<String, Role> roles = catalog.roles();
+        Set<Role> resolved = new HashSet<>(roleClaims.size());
+        for (String claim : roleClaims) {
+            Role role = roles.get(claim);
+            if (role != null) {
+                resolved.add(role);
+            }
+        }
+        return Collections.unmodifiableSet(resolved);
+    }
+    
+    /**
+     * Busca el rol canónico de un authority
+     */
+    public Optional<Role> findRole(String authority) {
+        return Optional.ofNullable(catalog.roles().get(authority));
+    }
+    
+    /**
+     * Codifica un conjunto de authorities como máscara de bits sobre el catálogo actual
+     * Retorna vacío si alguna authority no está en el catálogo o el catálogo no cabe en 63 bits;
+     * en ese caso el token debe emitirse en formato estándar
+     */
+    public Optional<RoleMask> encode(Set<String> roleClaims) {
+        RoleLayout layout = catalog.layout();
+        if (layout == null) {
+            return Optional.empty();
+        }
+        long bits = 0;
+        for (String claim : roleClaims) {
+            Integer position = layout.positions().get(claim);
+            if (position == null) {
+                return Optional.empty();
+            }
+            bits |= 1L << position;
+        }
+        return Optional.of(new RoleMask(layout.version(), bits));
+    }
+    
+    /**
+     * Decodifica una máscara de roles emitida con el layout de la versión indicada
+     * Retorna null si la versión no es conocida (ni siquiera tras recargar el catálogo)
+     */
+    public Set<String> decode(String version, long bits) {
+        RoleLayout layout = layouts.get(version);
+        if (layout == null) {
+            layout = refreshForUnknownVersion(version);
+            if (layout == null) {
+                return null;
+            }
+        }
+        if (bits >>> layout.authorities().size() != 0) {
+            return null;
+        }
+        Set<String> decoded = layout.decoded().get(bits);
+        if (decoded != null) {
+            return decoded;
+        }
+        Set<String> result = new HashSet<>(Long.bitCount(bits));
+        for (long remaining = bits; remaining != 0; remaining &= remaining - 1) {
+            result.add(layout.authorities().get(Long.numberOfTrailingZeros(remaining)));
+        }
+        result = Set.copyOf(result);
+        if (layout.decoded().size() < MAX_MEMOIZED_COMBINATIONS) {
+            layout.decoded().putIfAbsent(bits, result);
+        }
+        return result;
+    }
+    
+    private RoleLayout refreshForUnknownVersion(String version) {
+        long now = System.currentTimeMillis();
+        if (roleRepository == null || now - lastUnknownVersionRefresh < UNKNOWN_VERSION_REFRESH_INTERVAL_MS) {
+            return null;
+        }
+        lastUnknownVersionRefresh = now;
+        logger.debug("Versión de catálogo de roles desconocida en token: {}, recargando", version);
+        refresh();
+        return layouts.get(version);
+    }
+    
+    private void retainLayout(RoleLayout layout) {
+        if (layouts.containsKey(layout.version())) {
+            return;
+        }
+        LinkedHashMap<String, RoleLayout> retained = new LinkedHashMap<>(layouts);
+        retained.put(layout.version(), layout);
+        Iterator<String> oldest = retained.keySet().iterator();
+        while (retained.size() > MAX_RETAINED_LAYOUTS) {
+            oldest.next();
+            oldest.remove();
+        }
+        layouts = Collections.unmodifiableMap(retained);
+    }
+    
+    /**
+     * Roles de un token en formato compacto: versión del layout + máscara de bits
+     */
+    public record RoleMask(String version, long bits) {
+    }
+    
+    private record Catalog(
+        Map<String, Role> roles,
+        Map<String, GrantedAuthority> authorities,
+        Map<Set<String>, List<GrantedAuthority>> combinations,
+        RoleLayout layout
+    ) {
+        static final Catalog EMPTY = new Catalog(Map.of(), Map.of(), new ConcurrentHashMap<>(), null);
+    }
+    
+    /**
+     * Asignación authority → bit de un catálogo concreto
+     * La versión es una huella de las authorities ordenadas, idéntica en todos los nodos
+     */
+    private record RoleLayout(
+        String version,
+        List<String> authorities,
+        Map<String, Integer> positions,
+        Map<Long, Set<String>> decoded
+    ) {
+        static RoleLayout of(Set<String> catalogAuthorities) {
+            if (catalogAuthorities.isEmpty() || catalogAuthorities.size() > MAX_MASK_BITS) {
+                return null;
+            }
+            List<String> sorted = catalogAuthorities.stream().sorted().toList();
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < sorted.size(); i++) {
+                positions.put(sorted.get(i), i);
+            }
+            return new RoleLayout(fingerprint(sorted), sorted, Map.copyOf(positions), new ConcurrentHashMap<>());
+        }
+        
+        private static String fingerprint(List<String> sorted) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(String.join("\n", sorted).getBytes(StandardCharsets.UTF_8));
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 6));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 no disponible", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Calibración del coste de BCrypt según el hardware
+ *
+ * Mide el tiempo de hash con la fuerza mínima y, como cada punto de fuerza duplica el coste,
+ * elige la mayor fuerza cuyo tiempo estimado no supera el objetivo de latencia.
+ * El resultado nunca baja de la fuerza mínima configurada.
+ */
+public final class BCryptStrengthCalibrator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BCryptStrengthCalibrator.class);
+    
+    private static final int SAMPLES = 3;
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+    
+    private BCryptStrengthCalibrator() {
+    }
+    
+    /**
+     * Fuerza BCrypt para el objetivo de latencia por hash, entre minStrength y maxStrength
+     */
+    public static int calibrate(Duration target, int minStrength, int maxStrength) {
+        if (minStrength < 4 || maxStrength > 31 || minStrength > maxStrength) {
+            throw new IllegalArgumentException("Rango de fuerza BCrypt inválido: " + minStrength + "-" + maxStrength);
+        }
+        
+        // Primer hash de calentamiento (carga de clases, JIT) fuera de la medición
+        BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(minStrength));
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(minStrength));
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        long baseNanos = samples[SAMPLES / 2];
+        
+        int strength = minStrength;
+        while (strength < maxStrength && baseNanos << (strength + 1 - minStrength) <= target.toNanos()) {
+            strength++;
+        }
+        logger.info("BCrypt calibrado: fuerza {} (~{} ms por hash, objetivo {} ms)",
+            strength, (baseNanos << (strength - minStrength)) / 1_000_000, target.toMillis());
+        return strength;
+    }
+}
@@ -0,0 +1,174 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Emisor de access tokens HMAC sin pasar por el builder de jjwt ni por Jackson
+ *
+ * - El header JOSE es constante: se serializa y codifica en base64url una sola vez
+ * - Los claims se escriben directamente como JSON con el mismo orden y escapado que jjwt,
+ *   de modo que el token resultante es idéntico byte a byte al del builder
+ * - Las instancias de Mac ya inicializadas con la clave se reutilizan desde un pool acotado,
+ *   no por hilo: con hilos virtuales cada request corre en un hilo nuevo y un ThreadLocal
+ *   crearía un Mac por token. Si el pool está vacío se clona un prototipo inicializado
+ *
+ * Solo cubre la firma HMAC con jwt.secret; la firma asimétrica sigue usando jjwt.
+ */
+public final class HmacAccessTokenMinter {
+    
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    // Jackson escapa los caracteres de control con hexadecimal en mayúsculas (001F, no 001f)
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    
+    private final byte[] encodedHeader;
+    private final String jcaAlgorithm;
+    private final SecretKey secretKey;
+    private final Mac prototype;
+    private final BlockingQueue<Mac> pool;
+    
+    public HmacAccessTokenMinter(SecretKey secretKey) {
+        String jcaAlgorithm = secretKey.getAlgorithm();
+        String algorithm = switch (jcaAlgorithm) {
+            case "HmacSHA256" -> "HS256";
+            case "HmacSHA384" -> "HS384";
+            case "HmacSHA512" -> "HS512";
+            default -> throw new IllegalArgumentException("Algoritmo HMAC no soportado: " + jcaAlgorithm);
+        };
+        this.encodedHeader = BASE64_URL.encode(
+            ("{\"alg\":\"" + algorithm + "\"}").getBytes(StandardCharsets.UTF_8));
+        this.jcaAlgorithm = jcaAlgorithm;
+        this.secretKey = secretKey;
+        this.prototype = newMac();
+        // Un Mac por hilo de CPU que pueda estar firmando a la vez
+        this.pool = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
+    }
+    
+    /**
+     * Token en formato estándar: jti, sub, email, roles, iat, exp
+     */
+    public String mintStandard(String tokenId, String subject, String email, Collection<String> roles,
+                               long issuedAtSeconds, long expiresAtSeconds) {
+        StringBuilder json = new StringBuilder(160 + roles.size() * 24);
+        json.append("{\"jti\":");
+        appendString(json, tokenId);
+        json.append(",\"sub\":");
+        appendString(json, subject);
+        if (email != null) {
+            json.append(",\"email\":");
+            appendString(json, email);
+        }
+        json.append(",\"").append(JwtTokenService.CLAIM_ROLES).append("\":[");
+        boolean first = true;
+        for (String role : roles) {
+            if (!first) {
+                json.append(',');
+            }
+            appendString(json, role);
+            first = false;
+        }
+        json.append(']');
+        appendTimes(json, issuedAtSeconds, expiresAtSeconds);
+        return sign(json);
+    }
+    
+    /**
+     * Token en formato compacto: jti, sub, rv, rm, iat, exp
+     */
+    public String mintCompact(String tokenId, String subject, String roleVersion, long roleMask,
+                              long issuedAtSeconds, long expiresAtSeconds) {
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"jti\":");
+        appendString(json, tokenId);
+        json.append(",\"sub\":");
+        appendString(json, subject);
+        json.append(",\"").append(JwtTokenService.CLAIM_ROLE_VERSION).append("\":");
+        appendString(json, roleVersion);
+        json.append(",\"").append(JwtTokenService.CLAIM_ROLE_MASK).append("\":").append(roleMask);
+        appendTimes(json, issuedAtSeconds, expiresAtSeconds);
+        return sign(json);
+    }
+    
+    private static void appendTimes(StringBuilder json, long issuedAtSeconds, long expiresAtSeconds) {
+        json.append(",\"iat\":").append(issuedAtSeconds)
+            .append(",\"exp\":").append(expiresAtSeconds)
+            .append('}');
+    }
+    
+    private String sign(StringBuilder json) {
+        byte[] payload = BASE64_URL.encode(json.toString().getBytes(StandardCharsets.UTF_8));
+        
+        // header.payload.signature en un único buffer ASCII
+        int signingInputLength = encodedHeader.length + 1 + payload.length;
+        Mac instance = acquire();
+        int signatureLength = (instance.getMacLength() * 4 + 2) / 3;
+        byte[] token = new byte[signingInputLength + 1 + signatureLength];
+        System.arraycopy(encodedHeader, 0, token, 0, encodedHeader.length);
+        token[encodedHeader.length] = '.';
+        System.arraycopy(payload, 0, token, encodedHeader.length + 1, payload.length);
+        
+        instance.update(token, 0, signingInputLength);
+        byte[] signature = BASE64_URL.encode(instance.doFinal());
+        // doFinal deja el Mac listo para el siguiente token; con el pool lleno se descarta
+        pool.offer(instance);
+        token[signingInputLength] = '.';
+        System.arraycopy(signature, 0, token, signingInputLength + 1, signature.length);
+        return new String(token, StandardCharsets.ISO_8859_1);
+    }
+    
+    private Mac acquire() {
+        Mac instance = pool.poll();
+        if (instance != null) {
+            return instance;
+        }
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return newMac();
+        }
+    }
+    
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(jcaAlgorithm);
+            instance.init(secretKey);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo inicializar " + jcaAlgorithm, e);
+        }
+    }
+    
+    /**
+     * Escribe un string JSON con el mismo escapado que Jackson (comillas, barra invertida y
+     * caracteres de control; el resto se emite tal cual en UTF-8)
+     */
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                case '\b' -> json.append("\\b");
+                case '\f' -> json.append("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        json.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
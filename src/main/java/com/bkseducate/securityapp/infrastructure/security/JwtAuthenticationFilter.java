@@ -1,33 +1,95 @@
 package com.bkseducate.securityapp.infrastructure.security;
 
+import com.bkseducate.securityapp.domain.exceptions.InvalidTokenException;
+import com.bkseducate.securityapp.domain.model.VerifiedAccessToken;
+import com.bkseducate.securityapp.domain.ports.AccessTokenRevocationService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.PathContainer;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Filtro JWT que se ejecuta una vez por request
  * Extrae el token del header Authorization y establece el contexto de seguridad
+ *
+ * Pipeline de validación (de más barato a más caro):
+ * 1. Rutas públicas (security.public-endpoints): el filtro no se ejecuta
+ * 2. Pre-validación sin firma: estructura, alg/kid y exp ({@link TokenPreValidator})
+ * 3. Verificación completa de firma y claims ({@link JwtTokenService#verifyAccessToken})
+ * 4. Denylist de tokens revocados por jti, en memoria ({@link AccessTokenDenylist})
+ *
+ * El token verificado queda como credentials de la autenticación (p. ej. para revocarlo en el logout).
+ *
+ * Los rechazos se registran como WARN con límite de frecuencia y sin stack trace.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
+    private static final RateLimitedLogger rejectionLogger =
+        new RateLimitedLogger(LoggerFactory.getLogger(JwtAuthenticationFilter.class), 10, 60_000);
+    
     private final JwtTokenService jwtTokenService;
+    private final AuthorityRegistry authorityRegistry;
+    private final TokenPreValidator tokenPreValidator;
+    private final AccessTokenRevocationService revocationService;
+    private final List<String> publicEndpoints;
+    private final List<PathPattern> publicEndpointPatterns;
     
-    public JwtAuthenticationFilter(JwtTokenService jwtTokenService) {
+    public JwtAuthenticationFilter(
+            JwtTokenService jwtTokenService,
+            AuthorityRegistry authorityRegistry,
+            TokenPreValidator tokenPreValidator,
+            AccessTokenRevocationService revocationService,
+            Environment environment) {
         this.jwtTokenService = jwtTokenService;
+        this.authorityRegistry = authorityRegistry;
+        this.tokenPreValidator = tokenPreValidator;
+        this.revocationService = revocationService;
+        this.publicEndpoints = List.copyOf(Binder.get(environment)
+            .bind("security.public-endpoints", Bindable.listOf(String.class))
+            .orElse(List.of()));
+        this.publicEndpointPatterns = publicEndpoints.stream()
+            .map(PathPatternParser.defaultInstance::parse)
+            .toList();
+    }
+    
+    /**
+     * Rutas de security.public-endpoints; SecurityConfig las marca como permitAll con la misma lista
+     */
+    public List<String> publicEndpoints() {
+        return publicEndpoints;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (publicEndpointPatterns.isEmpty()) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        PathContainer pathContainer = PathContainer.parsePath(path);
+        for (PathPattern pattern : publicEndpointPatterns) {
+            if (pattern.matches(pathContainer)) {
+                return true;
+            }
+        }
+        return false;
     }
     
     @Override
@@ -36,39 +98,62 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
         
+        String jwt = getJwtFromRequest(request);
+        
+        if (StringUtils.hasText(jwt)) {
+            // Descartar tokens malformados, con alg/kid no admitidos o expirados sin verificar firma
+            PreValidationResult preValidation = tokenPreValidator.check(jwt);
+            if (preValidation.isAccepted()) {
+                authenticate(jwt, request);
+            } else {
+                rejectionLogger.warn("Token rechazado ({}) en {} {}",
+                    preValidation, request.getMethod(), request.getRequestURI());
+            }
+        }
+        
+        filterChain.doFilter(request, response);
+    }
+    
+    private void authenticate(String jwt, HttpServletRequest request) {
         try {
-            String jwt = getJwtFromRequest(request);
+            // Verificar token una sola vez (firma, expiración y claims)
+            VerifiedAccessToken verifiedToken = jwtTokenService.verifyAccessToken(jwt);
             
-            if (StringUtils.hasText(jwt)) {
-                // Validar token y extraer userId
-                UUID userId = jwtTokenService.validateAccessToken(jwt);
-                
-                // Extraer roles
-                var roles = jwtTokenService.extractRoles(jwt);
-                
-                // Crear authorities
-                List<SimpleGrantedAuthority> authorities = roles.stream()
-                    .map(role -> new SimpleGrantedAuthority(role.getAuthority()))
-                    .collect(Collectors.toList());
-                
-                // Crear autenticación
-                UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(
-                        userId,
-                        null,
-                        authorities
-                    );
-                
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
-                // Establecer en el contexto de seguridad
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (revocationService.isRevoked(verifiedToken)) {
+                rejectionLogger.warn("Token rechazado (REVOKED) en {} {}",
+                    request.getMethod(), request.getRequestURI());
+                return;
             }
+            
+            // Resolver authorities canónicas (sin crear objetos por request)
+            List<GrantedAuthority> authorities = authorityRegistry.authoritiesFor(verifiedToken.roles());
+            
+            // Crear autenticación
+            UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(
+                    verifiedToken.userId(),
+                    verifiedToken,
+                    authorities
+                );
+            
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            
+            // Establecer en el contexto de seguridad
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        } catch (InvalidTokenException ex) {
+            rejectionLogger.warn("Token rechazado (INVALID_SIGNATURE) en {} {}: {}",
+                request.getMethod(), request.getRequestURI(), rootCauseMessage(ex));
         } catch (Exception ex) {
             logger.error("No se pudo establecer la autenticación del usuario", ex);
         }
-        
-        filterChain.doFilter(request, response);
+    }
+    
+    private static String rootCauseMessage(Throwable ex) {
+        Throwable cause = ex;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
     }
     
     private String getJwtFromRequest(HttpServletRequest request) {
@@ -0,0 +1,360 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import com.bkseducate.securityapp.infrastructure.persistence.entity.SigningKeyEntity;
+import com.bkseducate.securityapp.infrastructure.persistence.repository.SigningKeyJpaRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Key ring de claves asimétricas para firmar access tokens (ES256 o EdDSA)
+ *
+ * - Una clave activa firma; las retiradas se siguen aceptando (y publicando en el JWKS)
+ *   hasta que vence el último token que pudieron firmar
+ * - Rotación en dos fases: la siguiente clave se genera como pendiente (publicada en el JWKS,
+ *   sin firmar) y solo firma a partir de su activates_at, jwks-max-age + refresh-interval más
+ *   tarde. Un servidor de recursos que cacheó el JWKS justo antes ya conoce la clave cuando
+ *   aparece el primer token firmado con ella
+ * - Al activarse la pendiente, el mantenimiento retira la clave anterior
+ * - Varias claves activadas a la vez (arranque concurrente con la tabla vacía, o dos nodos que
+ *   generaron la siguiente clave) se resuelven igual: se conserva la de activates_at más
+ *   reciente y se retiran las demás, con el mismo orden en todos los nodos
+ * - Las claves se comparten entre nodos vía la tabla jwt_signing_keys; la privada se
+ *   guarda cifrada con AES-GCM usando una clave derivada de jwt.secret
+ *
+ * Con jwt.signing.algorithm=HMAC (por defecto) el key ring queda inactivo.
+ */
+@Component
+public class JwtKeyRing {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+    
+    // Mínimo entre recargas provocadas por un kid desconocido
+    private static final long UNKNOWN_KID_RELOAD_INTERVAL_MS = 5_000;
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+    
+    private final SigningKeyJpaRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final SignatureAlgorithm algorithm;
+    private final Duration rotationInterval;
+    private final Duration publicationLead;
+    private final Duration retiredKeyRetention;
+    private final SecretKeySpec keyEncryptionKey;
+    private final SecureRandom secureRandom = new SecureRandom();
+    
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile long lastReloadMillis;
+    private final ReentrantLock bootstrapLock = new ReentrantLock();
+    
+    @Autowired
+    public JwtKeyRing(
+            SigningKeyJpaRepository repository,
+            PlatformTransactionManager transactionManager,
+            @Value("${jwt.signing.algorithm:HMAC}") String algorithm,
+            @Value("${jwt.signing.rotation-interval:86400000}") long rotationIntervalMillis,
+            @Value("${jwt.signing.retired-key-retention:1800000}") long retiredKeyRetentionMillis,
+            @Value("${jwt.signing.jwks-max-age:300}") long jwksMaxAgeSeconds,
+            @Value("${jwt.signing.refresh-interval:60000}") long refreshIntervalMillis,
+            @Value("${jwt.access-token-expiration}") long accessTokenExpiration,
+            @Value("${jwt.secret}") String secret) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.algorithm = resolveAlgorithm(algorithm);
+        this.rotationInterval = Duration.ofMillis(rotationIntervalMillis);
+        // Caché del JWKS en los clientes más la recarga del key ring en el resto de nodos
+        this.publicationLead = Duration.ofSeconds(jwksMaxAgeSeconds).plusMillis(refreshIntervalMillis);
+        // Una clave retirada debe seguir verificando al menos lo que dura un access token
+        this.retiredKeyRetention = Duration.ofMillis(Math.max(retiredKeyRetentionMillis, accessTokenExpiration));
+        this.keyEncryptionKey = deriveKeyEncryptionKey(secret);
+    }
+    
+    private JwtKeyRing() {
+        this.repository = null;
+        this.transactionTemplate = null;
+        this.algorithm = null;
+        this.rotationInterval = Duration.ZERO;
+        this.publicationLead = Duration.ZERO;
+        this.retiredKeyRetention = Duration.ZERO;
+        this.keyEncryptionKey = null;
+    }
+    
+    /**
+     * Key ring inactivo (firma HMAC con jwt.secret)
+     */
+    public static JwtKeyRing disabled() {
+        return new JwtKeyRing();
+    }
+    
+    /**
+     * Indica si los access tokens se firman con el key ring (ES256/EdDSA)
+     */
+    public boolean isEnabled() {
+        return algorithm != null;
+    }
+    
+    /**
+     * Identificador JWA del algoritmo de firma (ES256 / EdDSA), o null si está inactivo
+     */
+    public String algorithmId() {
+        return algorithm != null ? algorithm.getId() : null;
+    }
+    
+    /**
+     * Clave con la que se firman los nuevos tokens
+     */
+    public SigningKey activeKey() {
+        SigningKey active = snapshot.active();
+        if (active == null) {
+            // ReentrantLock y no synchronized: maintain() hace I/O de BD y no debe fijar el
+            // hilo portador cuando las requests corren en hilos virtuales
+            bootstrapLock.lock();
+            try {
+                if (snapshot.active() == null) {
+                    maintain();
+                }
+            } finally {
+                bootstrapLock.unlock();
+            }
+            active = snapshot.active();
+            if (active == null) {
+                throw new IllegalStateException("No hay clave de firma activa en el key ring");
+            }
+        }
+        return active;
+    }
+    
+    /**
+     * Clave pública para verificar un token con el kid dado, o null si no se conoce
+     */
+    public PublicKey verificationKey(String kid) {
+        SigningKey key = snapshot.byKid().get(kid);
+        if (key == null && isEnabled() && reloadAllowed()) {
+            // Otro nodo pudo haber rotado la clave: recargar una vez
+            reload();
+            key = snapshot.byKid().get(kid);
+        }
+        return key != null ? key.publicKey() : null;
+    }
+    
+    /**
+     * Claves públicas a publicar en el JWKS (pendiente + activa + retiradas vigentes)
+     */
+    public List<PublicJwk<?>> publicJwks() {
+        return snapshot.jwks();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintain();
+    }
+    
+    /**
+     * Recarga el key ring, prepara o activa la siguiente clave si corresponde y purga las
+     * retiradas vencidas
+     */
+    @Scheduled(
+        initialDelayString = "${jwt.signing.refresh-interval:60000}",
+        fixedDelayString = "${jwt.signing.refresh-interval:60000}")
+    public void maintain() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            reload();
+            LocalDateTime now = LocalDateTime.now();
+            SigningKey active = snapshot.active();
+            if (active == null) {
+                // Sin clave activa no se firma nada: nadie puede haber cacheado un JWKS sin ella
+                createKey(now, "activada");
+                reload();
+            } else if (snapshot.pending() == null
+                    && !active.activatesAt().plus(rotationInterval).minus(publicationLead).isAfter(now)) {
+                LocalDateTime activatesAt = max(active.activatesAt().plus(rotationInterval), now.plus(publicationLead));
+                createKey(activatesAt, "publicada; firma desde " + activatesAt);
+                reload();
+            }
+            if (snapshot.activeKeys() > 1) {
+                retireAllButActive(LocalDateTime.now());
+                reload();
+            }
+            int purged = transactionTemplate.execute(status ->
+                repository.deleteRetiredBefore(now.minus(retiredKeyRetention)));
+            if (purged > 0) {
+                logger.info("Claves de firma retiradas purgadas: {}", purged);
+            }
+        } catch (Exception ex) {
+            logger.warn("No se pudo mantener el key ring de firma: {}", ex.getMessage());
+        }
+    }
+    
+    private void createKey(LocalDateTime activatesAt, String state) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            // Para EdDSA se fija la curva Ed25519 (jjwt genera Ed448 por defecto)
+            KeyPair keyPair = algorithm == Jwts.SIG.EdDSA
+                ? Jwks.CRV.Ed25519.keyPair().build()
+                : algorithm.keyPair().build();
+            String kid = Jwks.builder().key(keyPair.getPublic()).idFromThumbprint().build().getId();
+            repository.save(new SigningKeyEntity(
+                kid,
+                algorithm.getId(),
+                keyPair.getPublic().getEncoded(),
+                seal(keyPair.getPrivate().getEncoded()),
+                now,
+                activatesAt,
+                null
+            ));
+            logger.info("Nueva clave de firma {} ({}) {}", kid, algorithm.getId(), state);
+        });
+    }
+    
+    private void retireAllButActive(LocalDateTime now) {
+        String kid = snapshot.active().kid();
+        int retired = transactionTemplate.execute(status -> repository.retireActiveExcept(kid, now));
+        if (retired > 0) {
+            logger.info("Claves de firma anteriores retiradas: {} (firma {})", retired, kid);
+        }
+    }
+    
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+    
+    private void reload() {
+        lastReloadMillis = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        List<SigningKeyEntity> entities = repository.findVerificationKeys(now.minus(retiredKeyRetention));
+    
+        SigningKey active = null;
+        SigningKey pending = null;
+        int activeKeys = 0;
+        Map<String, SigningKey> byKid = new HashMap<>();
+        List<PublicJwk<?>> jwks = new ArrayList<>();
+        for (SigningKeyEntity entity : entities) {
+            if (!algorithm.getId().equals(entity.getAlgorithm())) {
+                continue;
+            }
+            SigningKey key = toSigningKey(entity);
+            byKid.put(key.kid(), key);
+            jwks.add(Jwks.builder().key(key.publicKey())
+                .id(key.kid())
+                .algorithm(algorithm.getId())
+                .publicKeyUse("sig")
+                .build());
+            // Ordenadas por activates_at (y kid) descendente: la primera ya activada es la vigente,
+            // el mismo criterio en todos los nodos
+            if (entity.getRetiredAt() == null) {
+                if (entity.getActivatesAt().isAfter(now)) {
+                    pending = key;
+                } else {
+                    activeKeys++;
+                    if (active == null) {
+                        active = key;
+                    }
+                }
+            }
+        }
+        snapshot = new Snapshot(active, pending, activeKeys, Map.copyOf(byKid), List.copyOf(jwks));
+    }
+    
+    private boolean reloadAllowed() {
+        return System.currentTimeMillis() - lastReloadMillis > UNKNOWN_KID_RELOAD_INTERVAL_MS;
+    }
+    
+    private SigningKey toSigningKey(SigningKeyEntity entity) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(keyFactoryAlgorithm());
+            PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(entity.getPublicKey()));
+            PrivateKey privateKey = entity.getRetiredAt() == null
+                ? keyFactory.generatePrivate(new PKCS8EncodedKeySpec(unseal(entity.getPrivateKey())))
+                : null; // Las claves retiradas solo verifican
+            return new SigningKey(entity.getKid(), privateKey, publicKey, algorithm, entity.getActivatesAt());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Clave de firma " + entity.getKid() + " inválida", e);
+        }
+    }
+    
+    private String keyFactoryAlgorithm() {
+        return algorithm == Jwts.SIG.EdDSA ? "Ed25519" : "EC";
+    }
+    
+    private byte[] seal(byte[] plain) {
+        try {
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            secureRandom.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            byte[] encrypted = cipher.doFinal(plain);
+            return ByteBuffer.allocate(iv.length + encrypted.length).put(iv).put(encrypted).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo cifrar la clave de firma", e);
+        }
+    }
+    
+    private byte[] unseal(byte[] sealed) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(GCM_TAG_BITS, sealed, 0, GCM_IV_LENGTH));
+        return cipher.doFinal(sealed, GCM_IV_LENGTH, sealed.length - GCM_IV_LENGTH);
+    }
+    
+    private static SecretKeySpec deriveKeyEncryptionKey(String secret) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update("jwt-signing-key-encryption:".getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(digest.digest(secret.getBytes(StandardCharsets.UTF_8)), "AES");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+    
+    private static SignatureAlgorithm resolveAlgorithm(String algorithm) {
+        return switch (algorithm.trim().toUpperCase(Locale.ROOT)) {
+            case "HMAC", "HS256", "HS384", "HS512" -> null;
+            case "ES256" -> Jwts.SIG.ES256;
+            case "EDDSA", "ED25519" -> Jwts.SIG.EdDSA;
+            default -> throw new IllegalArgumentException("jwt.signing.algorithm no soportado: " + algorithm);
+        };
+    }
+    
+    /**
+     * Clave del key ring (privateKey es null en las claves retiradas)
+     */
+    public record SigningKey(
+        String kid,
+        PrivateKey privateKey,
+        PublicKey publicKey,
+        SignatureAlgorithm algorithm,
+        LocalDateTime activatesAt
+    ) {
+    }
+    
+    private record Snapshot(SigningKey active, SigningKey pending, int activeKeys,
+                            Map<String, SigningKey> byKid, List<PublicJwk<?>> jwks) {
+        static final Snapshot EMPTY = new Snapshot(null, null, 0, Map.of(), List.of());
+    }
+}
@@ -1,54 +1,131 @@
 package com.bkseducate.securityapp.infrastructure.security;
 
+import com.bkseducate.securityapp.domain.exceptions.InvalidTokenException;
 import com.bkseducate.securityapp.domain.model.Role;
+import com.bkseducate.securityapp.domain.model.VerifiedAccessToken;
 import com.bkseducate.securityapp.domain.ports.TokenService;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.SecureRandom;
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
  * Implementación del puerto TokenService usando JWT
  * Esta es una implementación de infraestructura, no está en el dominio
+ *
+ * Formatos de claims:
+ * - Estándar: sub, email, roles (lista de authorities), iat, exp
+ * - Compacto (jwt.claims.compact=true): sub, rv (versión del catálogo), rm (máscara de roles), iat, exp;
+ *   sin email. La verificación acepta ambos formatos.
+ *
+ * Ambos formatos incluyen jti (16 bytes aleatorios en base64url) para poder revocar el token.
  */
 @Service
 public class JwtTokenService implements TokenService {
     
+    static final String CLAIM_ROLES = "roles";
+    static final String CLAIM_ROLE_VERSION = "rv";
+    static final String CLAIM_ROLE_MASK = "rm";
+    
     private final SecretKey secretKey;
     private final Long accessTokenExpiration;
     
+    // El parser de jjwt es inmutable y thread-safe: se construye una sola vez
+    private final JwtParser jwtParser;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final AuthorityRegistry authorityRegistry;
+    private final JwtKeyRing keyRing;
+    private final boolean acceptHmacTokens;
+    private final boolean compactClaims;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final HmacAccessTokenMinter hmacMinter;
+    
     public JwtTokenService(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.access-token-expiration}") Long accessTokenExpiration) {
+            @Value("${jwt.access-token-expiration}") Long accessTokenExpiration,
+            VerifiedTokenCache verifiedTokenCache,
+            AuthorityRegistry authorityRegistry,
+            JwtKeyRing keyRing,
+            @Value("${jwt.signing.accept-hmac:false}") boolean acceptHmacTokens,
+            @Value("${jwt.claims.compact:false}") boolean compactClaims) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.accessTokenExpiration = accessTokenExpiration;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.authorityRegistry = authorityRegistry;
+        this.keyRing = keyRing;
+        // Con firma asimétrica, los tokens HMAC (sin kid) solo se aceptan durante la migración
+        this.acceptHmacTokens = !keyRing.isEnabled() || acceptHmacTokens;
+        this.compactClaims = compactClaims;
+        this.hmacMinter = new HmacAccessTokenMinter(secretKey);
+        this.jwtParser = Jwts.parser()
+            .keyLocator(new VerificationKeyLocator())
+            .build();
     }
     
     @Override
     public String generateAccessToken(UUID userId, String email, Set<Role> roles) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + accessTokenExpiration);
+        String tokenId = newTokenId();
         
         List<String> roleAuthorities = roles.stream()
             .map(Role::getAuthority)
             .collect(Collectors.toList());
         
-        return Jwts.builder()
-            .subject(userId.toString())
-            .claim("email", email)
-            .claim("roles", roleAuthorities)
-            .issuedAt(now)
+        // Formato compacto solo si todos los roles están en el catálogo actual
+        Optional<AuthorityRegistry.RoleMask> roleMask = compactClaims
+            ? authorityRegistry.encode(Set.copyOf(roleAuthorities))
+            : Optional.empty();
+        
+        if (!keyRing.isEnabled()) {
+            // Firma HMAC: emisor especializado (mismo token que el builder de jjwt)
+            long issuedAt = now.getTime() / 1000;
+            long expiresAt = expiryDate.getTime() / 1000;
+            return roleMask
+                .map(mask -> hmacMinter.mintCompact(
+                    tokenId, userId.toString(), mask.version(), mask.bits(), issuedAt, expiresAt))
+                .orElseGet(() -> hmacMinter.mintStandard(
+                    tokenId, userId.toString(), email, roleAuthorities, issuedAt, expiresAt));
+        }
+        
+        JwtBuilder builder = Jwts.builder()
+            .id(tokenId)
+            .subject(userId.toString());
+        
+        if (roleMask.isPresent()) {
+            builder.claim(CLAIM_ROLE_VERSION, roleMask.get().version())
+                .claim(CLAIM_ROLE_MASK, roleMask.get().bits());
+        } else {
+            builder.claim("email", email)
+                .claim(CLAIM_ROLES, roleAuthorities);
+        }
+        
+        JwtKeyRing.SigningKey signingKey = keyRing.activeKey();
+        return builder.issuedAt(now)
             .expiration(expiryDate)
-            .signWith(secretKey)
+            .header().keyId(signingKey.kid()).and()
+            .signWith(signingKey.privateKey(), signingKey.algorithm())
             .compact();
     }
     
+    private String newTokenId() {
+        byte[] bytes = new byte[16];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    
     @Override
     public String generateRefreshToken() {
         // Refresh token es un UUID aleatorio
@@ -56,65 +133,99 @@ public class JwtTokenService implements TokenService {
     }
     
     @Override
-    public UUID validateAccessToken(String token) {
+    public VerifiedAccessToken verifyAccessToken(String token) {
+        VerifiedAccessToken cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        
+        VerifiedAccessToken verified = parseAndVerify(token);
+        verifiedTokenCache.put(token, verified);
+        return verified;
+    }
+    
+    private VerifiedAccessToken parseAndVerify(String token) {
         try {
-            Claims claims = Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
+            Claims claims = jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
             
-            return UUID.fromString(claims.getSubject());
+            return new VerifiedAccessToken(
+                UUID.fromString(claims.getSubject()),
+                claims.get("email", String.class),
+                roleClaims(claims),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration().toInstant(),
+                claims.getId()
+            );
+        } catch (InvalidTokenException e) {
+            throw e;
         } catch (Exception e) {
-            throw new RuntimeException("Token inválido", e);
+            throw new InvalidTokenException("Token inválido", e);
         }
     }
     
+    private Set<String> roleClaims(Claims claims) {
+        Object mask = claims.get(CLAIM_ROLE_MASK);
+        if (mask != null) {
+            String version = claims.get(CLAIM_ROLE_VERSION, String.class);
+            Set<String> decoded = mask instanceof Number number && version != null
+                ? authorityRegistry.decode(version, number.longValue())
+                : null;
+            if (decoded == null) {
+                throw new InvalidTokenException("Roles del token no decodificables con el catálogo actual (versión " + version + ")");
+            }
+            return decoded;
+        }
+        
+        @SuppressWarnings("unchecked")
+        List<String> roleAuthorities = claims.get(CLAIM_ROLES, List.class);
+        return roleAuthorities != null ? new HashSet<>(roleAuthorities) : Set.of();
+    }
+    
+    @Override
+    public UUID validateAccessToken(String token) {
+        return verifyAccessToken(token).userId();
+    }
+    
     @Override
     public Set<Role> extractRoles(String token) {
         try {
-            Claims claims = Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-            
-            @SuppressWarnings("unchecked")
-            List<String> roleAuthorities = claims.get("roles", List.class);
-            
-            if (roleAuthorities == null || roleAuthorities.isEmpty()) {
-                return Set.of();
-            }
-            
-            // Retornar roles como entidades temporales basadas en authority
-            // En un sistema real, estos deberían buscarse desde la BD
-            return roleAuthorities.stream()
-                .map(authority -> {
-                    // Crear rol temporal basado en authority
-                    // En producción, deberías buscar desde RoleRepository
-                    String name = authority.replace("ROLE_", "").toUpperCase();
-                    return Role.reconstruct(
-                        UUID.randomUUID(), // ID temporal, no se usa para comparación
-                        name,
-                        authority
-                    );
-                })
-                .collect(Collectors.toSet());
+            // Instancias canónicas del registro; authorities desconocidas se ignoran
+            return authorityRegistry.rolesFor(verifyAccessToken(token).roles());
         } catch (Exception e) {
             return Set.of(); // Retornar conjunto vacío en caso de error
         }
     }
     
+    /**
+     * Indica si se aceptan tokens HMAC (sin kid)
+     */
+    public boolean acceptsHmacTokens() {
+        return acceptHmacTokens;
+    }
+    
     /**
      * Extrae el email del token
+     * Los tokens en formato compacto no incluyen email: retorna null
      */
     public String extractEmail(String token) {
-        Claims claims = Jwts.parser()
-            .verifyWith(secretKey)
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
+        return verifyAccessToken(token).email();
+    }
+    
+    /**
+     * Selecciona la clave de verificación según el header del token:
+     * con kid se busca en el key ring, sin kid se usa el secreto HMAC
+     */
+    private class VerificationKeyLocator extends LocatorAdapter<Key> {
         
-        return claims.get("email", String.class);
+        @Override
+        protected Key locate(JwsHeader header) {
+            String kid = header.getKeyId();
+            if (kid == null) {
+                return acceptHmacTokens ? secretKey : null;
+            }
+            return keyRing.verificationKey(kid);
+        }
     }
 }
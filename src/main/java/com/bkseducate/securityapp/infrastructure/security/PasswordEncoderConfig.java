@@ -0,0 +1,81 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Configuración de los algoritmos de hash de contraseñas
+ *
+ * Cada hash se guarda con el prefijo de su algoritmo ({bcrypt}, {pbkdf2}, {argon2}).
+ * Los hashes nuevos usan el algoritmo configurado; los existentes se verifican con el
+ * algoritmo de su prefijo y se rehacen con el actual en el siguiente login correcto.
+ * Los hashes sin prefijo (anteriores a este formato) se tratan como BCrypt.
+ *
+ * Presupuesto por algoritmo:
+ * - bcrypt: solo CPU, fuerza calibrada al arrancar (ver BCryptStrengthCalibrator)
+ * - pbkdf2: solo CPU, iteraciones de HMAC-SHA256
+ * - argon2: CPU y memoria; cada hash en curso reserva memory-kib, acotado por los hilos
+ *   de PasswordHashingExecutor
+ */
+@Configuration
+public class PasswordEncoderConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PasswordEncoderConfig.class);
+    
+    public static final String BCRYPT = "bcrypt";
+    public static final String PBKDF2 = "pbkdf2";
+    public static final String ARGON2 = "argon2";
+    
+    private static final int SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    
+    @Bean
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password-hashing.algorithm:bcrypt}") String algorithm,
+            @Value("${security.password-hashing.bcrypt.strength:0}") int bcryptStrength,
+            @Value("${security.password-hashing.bcrypt.target-latency:250ms}") Duration bcryptTargetLatency,
+            @Value("${security.password-hashing.bcrypt.min-strength:10}") int bcryptMinStrength,
+            @Value("${security.password-hashing.bcrypt.max-strength:14}") int bcryptMaxStrength,
+            @Value("${security.password-hashing.pbkdf2.iterations:310000}") int pbkdf2Iterations,
+            @Value("${security.password-hashing.argon2.memory-kib:19456}") int argon2MemoryKib,
+            @Value("${security.password-hashing.argon2.iterations:2}") int argon2Iterations,
+            @Value("${security.password-hashing.argon2.parallelism:1}") int argon2Parallelism) {
+        if (!Set.of(BCRYPT, PBKDF2, ARGON2).contains(algorithm)) {
+            throw new IllegalArgumentException("Algoritmo de hash de contraseñas no soportado: " + algorithm);
+        }
+    
+        // La calibración solo importa si BCrypt genera hashes nuevos; para verificar basta cualquier fuerza
+        int strength = bcryptStrength;
+        if (strength <= 0) {
+            strength = BCRYPT.equals(algorithm)
+                ? BCryptStrengthCalibrator.calibrate(bcryptTargetLatency, bcryptMinStrength, bcryptMaxStrength)
+                : bcryptMinStrength;
+        }
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+    
+        Map<String, PasswordEncoder> encoders = Map.of(
+            BCRYPT, bcrypt,
+            PBKDF2, new Pbkdf2PasswordEncoder("", SALT_LENGTH, pbkdf2Iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256),
+            ARGON2, new Argon2PasswordEncoder(SALT_LENGTH, ARGON2_HASH_LENGTH, argon2Parallelism,
+                argon2MemoryKib, argon2Iterations)
+        );
+    
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(algorithm, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        logger.info("Hash de contraseñas: {} (hashes con otro algoritmo se migran en el login)", algorithm);
+        return delegating;
+    }
+}
@@ -0,0 +1,288 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import com.bkseducate.securityapp.domain.exceptions.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool dedicado y acotado para el hashing de contraseñas (BCrypt)
+ *
+ * - Tamaño del pool: núcleos disponibles (el hashing es CPU puro)
+ * - Cola acotada: si está llena, la petición se rechaza al instante con
+ *   {@link ServiceOverloadedException} (503 + Retry-After) en lugar de encolarse
+ * - Una tarea que ha esperado en cola más de max-queue-wait se descarta sin ejecutarse
+ *   (el cliente probablemente ya ha abandonado)
+ *
+ * El hilo de la request espera el resultado, así que cada tarea admitida (en curso o en cola)
+ * ocupa un hilo de Tomcat. Hilos del pool + cola no pueden superar el presupuesto de requests
+ * en espera: por defecto, la mitad de server.tomcat.threads.max. Una ráfaga de logins ocupa como
+ * mucho esa mitad y los hilos restantes siguen disponibles para el tráfico autenticado con token
+ * (p. ej. /auth/me). Con hilos virtuales server.tomcat.threads.max no limita las requests, así que
+ * el presupuesto sale de security.password-hashing.max-waiting-requests (0 = valores por defecto
+ * del pool y la cola). Los valores por defecto se recortan al presupuesto; valores explícitos que
+ * lo superan impiden arrancar.
+ *
+ * executeAll (registro en lote) reintenta con espera creciente las tareas rechazadas por cola
+ * llena; una tarea que sigue sin entrar, o que esperó demasiado, deja null en su posición sin
+ * afectar al resto del lote.
+ *
+ * Métricas: security.password.hashing.{queue.size, active, wait, execution, rejected}
+ * (rejected con tag reason: queue-full o queue-wait)
+ */
+@Component
+public class PasswordHashingExecutor {
+    
+    // Fracción de los hilos de request (1/N) que pueden quedar esperando un hash
+    private static final int REQUEST_THREAD_SHARE = 2;
+    // Tareas en cola por hilo del pool si no se configura queue-capacity
+    private static final int DEFAULT_QUEUE_PER_THREAD = 16;
+    // Reintentos de executeAll ante cola llena: 50, 100 y 200 ms
+    private static final int BULK_SUBMIT_RETRIES = 3;
+    private static final long BULK_RETRY_BACKOFF_MILLIS = 50;
+    
+    private final ThreadPoolExecutor executor;
+    private final long maxQueueWaitNanos;
+    private final long retryAfterSeconds;
+    
+    private Timer waitTimer;
+    private Timer executionTimer;
+    private Counter queueFullCounter;
+    private Counter queueWaitCounter;
+    
+    @Autowired
+    public PasswordHashingExecutor(
+            @Value("${security.password-hashing.threads:0}") int threads,
+            @Value("${security.password-hashing.queue-capacity:0}") int queueCapacity,
+            @Value("${server.tomcat.threads.max:200}") int requestThreads,
+            @Value("${security.password-hashing.max-waiting-requests:0}") int maxWaitingRequests,
+            @Value("${security.password-hashing.max-queue-wait:5000}") long maxQueueWaitMillis,
+            @Value("${security.password-hashing.retry-after:1}") long retryAfterSeconds,
+            Environment environment,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this(threads, queueCapacity,
+            waitingRequestBudget(requestThreads, maxWaitingRequests, Threading.VIRTUAL.isActive(environment)),
+            maxQueueWaitMillis, retryAfterSeconds);
+        meterRegistry.ifAvailable(this::bindTo);
+    }
+    
+    /**
+     * threads o queueCapacity <= 0 toman los valores por defecto (núcleos disponibles y 16 tareas
+     * en cola por hilo), recortados a budget entre ambos
+     *
+     * @param budget máximo de requests esperando un hash (en curso + en cola)
+     * @throws IllegalArgumentException si threads + queueCapacity explícitos superan ese presupuesto
+     */
+    public PasswordHashingExecutor(int threads, int queueCapacity, int budget,
+                                   long maxQueueWaitMillis, long retryAfterSeconds) {
+        if (budget < 2) {
+            throw new IllegalArgumentException("Presupuesto de requests en espera demasiado bajo para el pool de "
+                + "hashing: " + budget);
+        }
+        int poolSize = threads > 0 ? threads : Math.min(Runtime.getRuntime().availableProcessors(), budget / 2);
+        int capacity = queueCapacity > 0
+            ? queueCapacity
+            : Math.min(poolSize * DEFAULT_QUEUE_PER_THREAD, budget - poolSize);
+        if (poolSize + capacity > budget) {
+            throw new IllegalArgumentException("security.password-hashing.threads + queue-capacity (" + poolSize
+                + " + " + capacity + ") supera el presupuesto de requests en espera (" + budget + ")");
+        }
+        this.executor = new ThreadPoolExecutor(
+            poolSize, poolSize,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(capacity),
+            new HashingThreadFactory(),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMillis);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    /**
+     * Ejecuta la tarea en el pool y espera su resultado
+     *
+     * @throws ServiceOverloadedException si la cola está llena o la tarea esperó demasiado
+     */
+    public <T> T execute(Supplier<T> task) {
+        return await(submit(task));
+    }
+    
+    /**
+     * Ejecuta las tareas en paralelo y retorna sus resultados en el mismo orden
+     *
+     * Nunca hay más tareas en curso que hilos en el pool: un lote grande no llena la cola
+     * y los logins siguen entrando entre sus tareas.
+     *
+     * @return resultados en el orden de las tareas; null en la posición de una tarea rechazada
+     *         (cola llena tras los reintentos o espera en cola excesiva)
+     */
+    public <T> List<T> executeAll(List<? extends Supplier<T>> tasks) {
+        int window = executor.getMaximumPoolSize();
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                while (futures.size() < tasks.size() && futures.size() - i < window) {
+                    futures.add(submitWithRetry(tasks.get(futures.size())));
+                }
+                results.add(awaitOrNull(futures.get(i)));
+            }
+            return results;
+        } catch (RuntimeException e) {
+            futures.stream().filter(Objects::nonNull).forEach(future -> future.cancel(false));
+            throw e;
+        }
+    }
+    
+    /**
+     * Presupuesto de requests esperando un hash: explícito si se configura; si no, la mitad de los
+     * hilos de Tomcat, o el pool y la cola por defecto con hilos virtuales
+     */
+    static int waitingRequestBudget(int requestThreads, int maxWaitingRequests, boolean virtualThreads) {
+        if (maxWaitingRequests > 0) {
+            return maxWaitingRequests;
+        }
+        if (virtualThreads) {
+            return Runtime.getRuntime().availableProcessors() * (DEFAULT_QUEUE_PER_THREAD + 1);
+        }
+        return requestThreads / REQUEST_THREAD_SHARE;
+    }
+    
+    /**
+     * Envía la tarea reintentando si la cola está llena, o null si no entra tras los reintentos
+     */
+    private <T> Future<T> submitWithRetry(Supplier<T> task) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return submit(task);
+            } catch (ServiceOverloadedException e) {
+                if (attempt == BULK_SUBMIT_RETRIES) {
+                    return null;
+                }
+                try {
+                    Thread.sleep(BULK_RETRY_BACKOFF_MILLIS << attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Hashing de contraseña interrumpido", interrupted);
+                }
+            }
+        }
+    }
+    
+    private <T> T awaitOrNull(Future<T> future) {
+        if (future == null) {
+            return null;
+        }
+        try {
+            return await(future);
+        } catch (ServiceOverloadedException e) {
+            return null;
+        }
+    }
+    
+    private <T> Future<T> submit(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                long waited = System.nanoTime() - submittedAt;
+                if (waitTimer != null) {
+                    waitTimer.record(waited, TimeUnit.NANOSECONDS);
+                }
+                if (waited > maxQueueWaitNanos) {
+                    if (queueWaitCounter != null) {
+                        queueWaitCounter.increment();
+                    }
+                    throw overloaded();
+                }
+                if (executionTimer == null) {
+                    return task.get();
+                }
+                return executionTimer.record(task);
+            });
+        } catch (RejectedExecutionException e) {
+            if (queueFullCounter != null) {
+                queueFullCounter.increment();
+            }
+            throw overloaded();
+        }
+    }
+    
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Error en el hashing de contraseña", e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hashing de contraseña interrumpido", e);
+        }
+    }
+    
+    public int queueSize() {
+        return executor.getQueue().size();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    private ServiceOverloadedException overloaded() {
+        return new ServiceOverloadedException(
+            "Servicio saturado, reintente en unos segundos", retryAfterSeconds);
+    }
+    
+    private void bindTo(MeterRegistry registry) {
+        Gauge.builder("security.password.hashing.queue.size", this, PasswordHashingExecutor::queueSize)
+            .description("Tareas de hashing en cola")
+            .register(registry);
+        Gauge.builder("security.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Hilos del pool de hashing ocupados")
+            .register(registry);
+        waitTimer = Timer.builder("security.password.hashing.wait")
+            .description("Tiempo de espera en cola antes de hashear")
+            .publishPercentiles(0.5, 0.99)
+            .register(registry);
+        executionTimer = Timer.builder("security.password.hashing.execution")
+            .description("Duración del hashing / verificación de contraseña")
+            .register(registry);
+        queueFullCounter = Counter.builder("security.password.hashing.rejected")
+            .description("Peticiones rechazadas con 503 por el pool de hashing")
+            .tag("reason", "queue-full")
+            .register(registry);
+        queueWaitCounter = Counter.builder("security.password.hashing.rejected")
+            .description("Peticiones rechazadas con 503 por el pool de hashing")
+            .tag("reason", "queue-wait")
+            .register(registry);
+    }
+    
+    private static final class HashingThreadFactory implements ThreadFactory {
+        
+        private final AtomicInteger sequence = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
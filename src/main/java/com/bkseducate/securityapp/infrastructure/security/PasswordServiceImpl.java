@@ -4,26 +4,48 @@ import com.bkseducate.securityapp.domain.ports.PasswordService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.function.Supplier;
+
 /**
- * Implementación del puerto PasswordService usando BCrypt
+ * Implementación del puerto PasswordService sobre el PasswordEncoder con prefijo de algoritmo
+ * (ver {@link PasswordEncoderConfig})
  * Esta es una implementación de infraestructura
+ *
+ * El hashing se ejecuta en {@link PasswordHashingExecutor} (pool acotado), no en el hilo de la request
  */
 @Service
 public class PasswordServiceImpl implements PasswordService {
     
     private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor hashingExecutor;
     
-    public PasswordServiceImpl(PasswordEncoder passwordEncoder) {
+    public PasswordServiceImpl(PasswordEncoder passwordEncoder, PasswordHashingExecutor hashingExecutor) {
         this.passwordEncoder = passwordEncoder;
+        this.hashingExecutor = hashingExecutor;
     }
     
     @Override
     public String hash(String plainPassword) {
-        return passwordEncoder.encode(plainPassword);
+        return hashingExecutor.execute(() -> passwordEncoder.encode(plainPassword));
+    }
+    
+    @Override
+    public List<String> hashAll(List<String> plainPasswords) {
+        List<Supplier<String>> tasks = plainPasswords.stream()
+            .<Supplier<String>>map(plain -> () -> passwordEncoder.encode(plain))
+            .toList();
+        return hashingExecutor.executeAll(tasks);
     }
     
     @Override
     public boolean matches(String plainPassword, String hashedPassword) {
-        return passwordEncoder.matches(plainPassword, hashedPassword);
+        return hashingExecutor.execute(() -> passwordEncoder.matches(plainPassword, hashedPassword));
+    }
+    
+    @Override
+    public boolean needsRehash(String hashedPassword) {
+        // Hash de otro algoritmo (o sin prefijo) → se migra; mismo algoritmo → solo si es más débil que el actual
+        return passwordEncoder.upgradeEncoding(hashedPassword);
     }
 }
@@ -0,0 +1,16 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+/**
+ * Resultado de las comprobaciones baratas previas a la verificación de firma
+ */
+public enum PreValidationResult {
+    ACCEPTED,
+    MALFORMED,
+    UNSUPPORTED_ALGORITHM,
+    UNKNOWN_KEY,
+    EXPIRED;
+    
+    public boolean isAccepted() {
+        return this == ACCEPTED;
+    }
+}
@@ -0,0 +1,55 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logger que emite como máximo N mensajes por ventana de tiempo
+ * Los mensajes descartados se cuentan y se informan en el siguiente mensaje emitido
+ */
+public class RateLimitedLogger {
+    
+    private final Logger logger;
+    private final int maxPerWindow;
+    private final long windowMillis;
+    
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicInteger emittedInWindow = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+    
+    public RateLimitedLogger(Logger logger, int maxPerWindow, long windowMillis) {
+        this.logger = logger;
+        this.maxPerWindow = maxPerWindow;
+        this.windowMillis = windowMillis;
+    }
+    
+    public void warn(String format, Object... args) {
+        if (!logger.isWarnEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long start = windowStart.get();
+        if (now - start >= windowMillis && windowStart.compareAndSet(start, now)) {
+            emittedInWindow.set(0);
+        }
+        if (emittedInWindow.incrementAndGet() > maxPerWindow) {
+            suppressed.incrementAndGet();
+            return;
+        }
+        long dropped = suppressed.getAndSet(0);
+        if (dropped > 0) {
+            logger.warn(format + " ({} mensajes similares suprimidos)", append(args, dropped));
+        } else {
+            logger.warn(format, args);
+        }
+    }
+    
+    private static Object[] append(Object[] args, Object extra) {
+        Object[] result = new Object[args.length + 1];
+        System.arraycopy(args, 0, result, 0, args.length);
+        result[args.length] = extra;
+        return result;
+    }
+}
@@ -0,0 +1,136 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import com.bkseducate.securityapp.infrastructure.persistence.repository.RefreshTokenJpaRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Purga periódica de refresh tokens vencidos
+ *
+ * - Cada pasada borra por lotes de batch-size filas: selecciona los ids por el índice de
+ *   expires_at y los borra por clave primaria en una transacción corta, de modo que nunca
+ *   bloquea más de un lote ni recorre la tabla entera
+ * - Un lote por ejecución, con batch-pause ms entre lotes: la tarea nunca queda dormida ni
+ *   ocupa su hilo del scheduler más de un lote
+ * - Cuando no quedan lotes completos, la siguiente pasada empieza tras interval ms
+ * - Los tokens revocados solo se borran al vencer: un token consumido por la rotación
+ *   comparte la expiración de su familia y tiene que seguir en la tabla mientras la familia
+ *   viva para que su reutilización se detecte (y revoque la familia) en lugar de responder
+ *   como token desconocido
+ * - Varios nodos pueden ejecutarla a la vez: el borrado por id es idempotente y un lote ya
+ *   borrado por otro nodo simplemente elimina 0 filas
+ *
+ * Métricas: security.refresh.purge.deleted (tag reason: expired) y
+ * security.refresh.purge.batch (latencia de cada lote)
+ */
+@Component
+public class RefreshTokenPurger {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenPurger.class);
+    
+    private final RefreshTokenJpaRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long intervalMillis;
+    private final int batchSize;
+    
+    private final LongAdder expiredDeleted = new LongAdder();
+    private Timer batchTimer;
+    
+    private volatile long nextRunAt;
+    private long passDeleted;
+    
+    public RefreshTokenPurger(
+            RefreshTokenJpaRepository repository,
+            PlatformTransactionManager transactionManager,
+            @Value("${security.refresh-token-purge.enabled:true}") boolean enabled,
+            @Value("${security.refresh-token-purge.interval:3600000}") long intervalMillis,
+            @Value("${security.refresh-token-purge.batch-size:1000}") int batchSize,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.intervalMillis = intervalMillis;
+        this.batchSize = Math.max(1, batchSize);
+        meterRegistry.ifAvailable(this::bindTo);
+    }
+    
+    /**
+     * Borra como mucho un lote de vencidos por ejecución
+     */
+    @Scheduled(
+        initialDelayString = "${security.refresh-token-purge.batch-pause:200}",
+        fixedDelayString = "${security.refresh-token-purge.batch-pause:200}")
+    public void purgeBatch() {
+        if (!enabled || System.currentTimeMillis() < nextRunAt) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (!deleteBatch(page -> repository.findExpiredIds(now, page))) {
+                finishPass();
+            }
+        } catch (Exception ex) {
+            logger.warn("No se pudo purgar refresh tokens: {}", ex.getMessage());
+            finishPass();
+        }
+    }
+    
+    /**
+     * @return true si el lote estaba completo (probablemente quedan más filas)
+     */
+    private boolean deleteBatch(Function<PageRequest, List<UUID>> nextIds) {
+        long start = System.nanoTime();
+        Batch batch = transactionTemplate.execute(status -> {
+            List<UUID> ids = nextIds.apply(PageRequest.ofSize(batchSize));
+            return new Batch(ids.size(), ids.isEmpty() ? 0 : repository.deleteByIdIn(ids));
+        });
+        if (batchTimer != null) {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        expiredDeleted.add(batch.deleted());
+        passDeleted += batch.deleted();
+        return batch.selected() == batchSize;
+    }
+    
+    private void finishPass() {
+        if (passDeleted > 0) {
+            logger.info("Purga de refresh tokens completada: {} filas borradas", passDeleted);
+        }
+        passDeleted = 0;
+        nextRunAt = System.currentTimeMillis() + intervalMillis;
+    }
+    
+    private void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("security.refresh.purge.deleted", expiredDeleted, LongAdder::sum)
+            .tag("reason", "expired")
+            .description("Refresh tokens borrados por la purga")
+            .register(registry);
+        batchTimer = Timer.builder("security.refresh.purge.batch")
+            .description("Duración de cada lote de la purga de refresh tokens (selección y borrado)")
+            .register(registry);
+    }
+    
+    /**
+     * Filas seleccionadas y borradas en un lote (otro nodo puede haber borrado parte)
+     */
+    private record Batch(int selected, int deleted) {
+    }
+}
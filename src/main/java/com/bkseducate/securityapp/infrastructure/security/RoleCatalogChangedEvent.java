@@ -0,0 +1,8 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+/**
+ * Evento publicado cuando se crea o modifica un rol
+ * Permite refrescar el {@link AuthorityRegistry} sin esperar al refresco periódico
+ */
+public record RoleCatalogChangedEvent(String authority) {
+}
@@ -7,8 +7,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -16,6 +14,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
+import java.util.List;
 
 
 /**
@@ -41,22 +40,14 @@ public class SecurityConfig {
             .sessionManagement(session -> 
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> {
-                // Endpoints públicos
-                auth.requestMatchers("/auth/login", "/auth/register", "/auth/refresh").permitAll();
-                auth.requestMatchers("/h2-console/**").permitAll();
-                auth.requestMatchers("/actuator/health").permitAll();
+                // Endpoints públicos (security.public-endpoints, la misma lista que omite el filtro JWT)
+                List<String> publicEndpoints = jwtAuthenticationFilter.publicEndpoints();
+                if (!publicEndpoints.isEmpty()) {
+                    auth.requestMatchers(publicEndpoints.toArray(String[]::new)).permitAll();
+                }
                 
-                // Swagger/OpenAPI endpoints públicos (todas las rutas posibles)
-                auth.requestMatchers(
-                    "/swagger-ui/**",
-                    "/swagger-ui.html",
-                    "/v3/api-docs/**",
-                    "/v3/api-docs.yaml",
-                    "/v3/api-docs.yml",
-                    "/swagger-resources/**",
-                    "/webjars/**",
-                    "/configuration/**"
-                ).permitAll();
+                // Las métricas exponen detalles internos (throttle de logins, cola de hashing, denylist)
+                auth.requestMatchers("/actuator/metrics", "/actuator/metrics/**").hasRole("ADMIN");
                 
                 // Todos los demás endpoints requieren autenticación
                 auth.anyRequest().authenticated();
@@ -67,11 +58,6 @@ public class SecurityConfig {
         return http.build();
     }
     
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-    
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
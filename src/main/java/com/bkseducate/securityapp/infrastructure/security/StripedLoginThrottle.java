@@ -0,0 +1,265 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import com.bkseducate.securityapp.domain.exceptions.TooManyLoginAttemptsException;
+import com.bkseducate.securityapp.domain.ports.LoginThrottle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limitador en memoria de intentos de login fallidos, por email y por IP
+ *
+ * Cada clave tiene un token bucket: max-failures intentos, y se recupera un intento por cada
+ * refill-period. Cada login toma su intento bajo el lock del stripe antes de consultar la base
+ * de datos o ejecutar BCrypt; con el bucket vacío se rechaza (429 + Retry-After). Un fallo deja el
+ * intento consumido y un login correcto lo devuelve, de modo que como mucho max-failures logins
+ * concurrentes de una clave llegan a verificar la contraseña.
+ *
+ * - Los buckets se reparten en stripes (mapa + lock por stripe) para evitar contención
+ * - Memoria acotada: cada stripe guarda como mucho max-entries / STRIPES claves y descarta
+ *   la menos reciente; un bucket ya recargado equivale a no tener entrada y se elimina
+ * - El estado es local a cada nodo: en un cluster el límite efectivo es por nodo
+ *
+ * Métricas: security.login.throttle.{entries, rejected}
+ */
+@Component
+public class StripedLoginThrottle implements LoginThrottle {
+    
+    private static final int STRIPES = 64;
+    
+    private final boolean enabled;
+    private final BucketTable emails;
+    private final BucketTable ips;
+    
+    private Counter emailRejections;
+    private Counter ipRejections;
+    
+    @Autowired
+    public StripedLoginThrottle(
+            @Value("${security.login-throttle.enabled:true}") boolean enabled,
+            @Value("${security.login-throttle.max-entries:50000}") int maxEntries,
+            @Value("${security.login-throttle.email.max-failures:5}") int emailMaxFailures,
+            @Value("${security.login-throttle.email.refill-period:60s}") Duration emailRefillPeriod,
+            @Value("${security.login-throttle.ip.max-failures:50}") int ipMaxFailures,
+            @Value("${security.login-throttle.ip.refill-period:6s}") Duration ipRefillPeriod,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this(enabled, maxEntries, emailMaxFailures, emailRefillPeriod, ipMaxFailures, ipRefillPeriod);
+        meterRegistry.ifAvailable(this::bindTo);
+    }
+    
+    public StripedLoginThrottle(boolean enabled, int maxEntries,
+                                int emailMaxFailures, Duration emailRefillPeriod,
+                                int ipMaxFailures, Duration ipRefillPeriod) {
+        this.enabled = enabled;
+        this.emails = new BucketTable(maxEntries, emailMaxFailures, emailRefillPeriod);
+        this.ips = new BucketTable(maxEntries, ipMaxFailures, ipRefillPeriod);
+    }
+    
+    @Override
+    public void acquire(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        String emailKey = normalize(email);
+        long emailWait = emails.tryAcquire(emailKey, now);
+        if (emailWait > 0) {
+            increment(emailRejections);
+            throw throttled(emailWait);
+        }
+        long ipWait = clientIp != null ? ips.tryAcquire(clientIp, now) : 0;
+        if (ipWait > 0) {
+            // El intento del email no llega a usarse
+            emails.refund(emailKey, now);
+            increment(ipRejections);
+            throw throttled(ipWait);
+        }
+    }
+    
+    @Override
+    public void recordSuccess(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        emails.reset(normalize(email));
+        if (clientIp != null) {
+            ips.refund(clientIp, System.nanoTime());
+        }
+    }
+    
+    @Override
+    public void release(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        emails.refund(normalize(email), now);
+        if (clientIp != null) {
+            ips.refund(clientIp, now);
+        }
+    }
+    
+    public int trackedEntries() {
+        return emails.size() + ips.size();
+    }
+    
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static TooManyLoginAttemptsException throttled(long waitNanos) {
+        long seconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        return new TooManyLoginAttemptsException(
+            "Demasiados intentos de login fallidos, reintente en " + seconds + " segundos", seconds);
+    }
+    
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+    
+    private void bindTo(MeterRegistry registry) {
+        Gauge.builder("security.login.throttle.entries", this, StripedLoginThrottle::trackedEntries)
+            .description("Claves (email / IP) con intentos fallidos recientes")
+            .register(registry);
+        emailRejections = Counter.builder("security.login.throttle.rejected")
+            .tag("key", "email")
+            .description("Logins rechazados por límite de intentos fallidos")
+            .register(registry);
+        ipRejections = Counter.builder("security.login.throttle.rejected")
+            .tag("key", "ip")
+            .description("Logins rechazados por límite de intentos fallidos")
+            .register(registry);
+    }
+    
+    /**
+     * Buckets de un tipo de clave, repartidos en stripes con LRU acotado
+     */
+    private static final class BucketTable {
+    
+        private final Stripe[] stripes = new Stripe[STRIPES];
+        private final double capacity;
+        private final long refillNanos;
+    
+        BucketTable(int maxEntries, int maxFailures, Duration refillPeriod) {
+            if (maxFailures < 1 || refillPeriod.isNegative() || refillPeriod.isZero()) {
+                throw new IllegalArgumentException("Configuración de login-throttle inválida");
+            }
+            int perStripe = Math.max(1, maxEntries / STRIPES);
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe(perStripe);
+            }
+            this.capacity = maxFailures;
+            this.refillNanos = refillPeriod.toNanos();
+        }
+    
+        /**
+         * Toma un intento de la clave; retorna 0 si lo obtuvo o el tiempo hasta que recupere uno
+         * (en ese caso no consume nada)
+         */
+        long tryAcquire(String key, long now) {
+            Stripe stripe = stripeFor(key);
+            stripe.lock.lock();
+            try {
+                Bucket bucket = stripe.buckets.computeIfAbsent(key, k -> new Bucket(now));
+                double used = bucket.decay(now, refillNanos);
+                double excess = used + 1 - capacity;
+                if (excess > 0) {
+                    return Math.max(1, (long) (excess * refillNanos));
+                }
+                bucket.used = used + 1;
+                return 0;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    
+        /**
+         * Devuelve un intento tomado; un bucket que queda vacío se elimina
+         */
+        void refund(String key, long now) {
+            Stripe stripe = stripeFor(key);
+            stripe.lock.lock();
+            try {
+                Bucket bucket = stripe.buckets.get(key);
+                if (bucket == null) {
+                    return;
+                }
+                bucket.used = Math.max(0, bucket.decay(now, refillNanos) - 1);
+                if (bucket.used == 0) {
+                    stripe.buckets.remove(key);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    
+        void reset(String key) {
+            Stripe stripe = stripeFor(key);
+            stripe.lock.lock();
+            try {
+                stripe.buckets.remove(key);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    
+        int size() {
+            int size = 0;
+            for (Stripe stripe : stripes) {
+                size += stripe.buckets.size();
+            }
+            return size;
+        }
+    
+        private Stripe stripeFor(String key) {
+            int h = key.hashCode();
+            return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+        }
+    }
+    
+    private static final class Stripe {
+    
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, Bucket> buckets;
+    
+        Stripe(int maxEntries) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+    }
+    
+    /**
+     * Intentos consumidos (fallidos o en curso), que decaen linealmente (uno por refill-period)
+     */
+    private static final class Bucket {
+    
+        double used;
+        long updatedAt;
+    
+        Bucket(long now) {
+            this.updatedAt = now;
+        }
+    
+        double decay(long now, long refillNanos) {
+            used = Math.max(0, used - (double) (now - updatedAt) / refillNanos);
+            updatedAt = now;
+            return used;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Comprobaciones baratas sobre un access token antes de verificar la firma
+ *
+ * 1. Estructura: tamaño acotado, tres segmentos base64url no vacíos
+ * 2. Header: alg permitido por la configuración y kid conocido por el key ring
+ * 3. exp (sin verificar): descarta tokens ya expirados
+ *
+ * No sustituye a la verificación: un token aceptado aquí se verifica completo después.
+ * Los rechazos se devuelven como {@link PreValidationResult}, sin excepciones.
+ */
+@Component
+public class TokenPreValidator {
+    
+    private static final int MAX_TOKEN_LENGTH = 8192;
+    private static final Set<String> HMAC_ALGORITHMS = Set.of("HS256", "HS384", "HS512");
+    
+    private final JwtTokenService jwtTokenService;
+    private final JwtKeyRing keyRing;
+    
+    public TokenPreValidator(JwtTokenService jwtTokenService, JwtKeyRing keyRing) {
+        this.jwtTokenService = jwtTokenService;
+        this.keyRing = keyRing;
+    }
+    
+    public PreValidationResult check(String token) {
+        // 1. Estructura
+        if (token.length() > MAX_TOKEN_LENGTH) {
+            return PreValidationResult.MALFORMED;
+        }
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot <= firstDot + 1 || secondDot == token.length() - 1
+                || token.indexOf('.', secondDot + 1) >= 0
+                || !isBase64Url(token, 0, token.length())) {
+            return PreValidationResult.MALFORMED;
+        }
+        
+        String header = decode(token, 0, firstDot);
+        String payload = decode(token, firstDot + 1, secondDot);
+        if (header == null || payload == null) {
+            return PreValidationResult.MALFORMED;
+        }
+        
+        // 2. alg / kid
+        String alg = stringField(header, "alg");
+        String kid = stringField(header, "kid");
+        if (alg == null) {
+            return PreValidationResult.MALFORMED;
+        }
+        if (kid == null) {
+            if (!jwtTokenService.acceptsHmacTokens() || !HMAC_ALGORITHMS.contains(alg)) {
+                return PreValidationResult.UNSUPPORTED_ALGORITHM;
+            }
+        } else {
+            if (!alg.equals(keyRing.algorithmId())) {
+                return PreValidationResult.UNSUPPORTED_ALGORITHM;
+            }
+            if (keyRing.verificationKey(kid) == null) {
+                return PreValidationResult.UNKNOWN_KEY;
+            }
+        }
+        
+        // 3. exp sin verificar
+        long exp = longField(payload, "exp");
+        if (exp < 0) {
+            return PreValidationResult.MALFORMED;
+        }
+        if (exp * 1000 <= System.currentTimeMillis()) {
+            return PreValidationResult.EXPIRED;
+        }
+        return PreValidationResult.ACCEPTED;
+    }
+    
+    private static boolean isBase64Url(String token, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = token.charAt(i);
+            boolean valid = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.';
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static String decode(String token, int from, int to) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(token.substring(from, to));
+            return new String(bytes, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Valor de un campo string de primer nivel ("name":"value"), sin parsear el JSON completo
+     */
+    private static String stringField(String json, String name) {
+        int valueStart = valueStart(json, name);
+        if (valueStart < 0 || valueStart >= json.length() || json.charAt(valueStart) != '"') {
+            return null;
+        }
+        int end = json.indexOf('"', valueStart + 1);
+        return end < 0 ? null : json.substring(valueStart + 1, end);
+    }
+    
+    /**
+     * Valor de un campo numérico entero ("name":123), o -1 si no existe
+     */
+    private static long longField(String json, String name) {
+        int i = valueStart(json, name);
+        if (i < 0) {
+            return -1;
+        }
+        long value = 0;
+        int digits = 0;
+        while (i < json.length() && Character.isDigit(json.charAt(i)) && digits < 18) {
+            value = value * 10 + (json.charAt(i) - '0');
+            i++;
+            digits++;
+        }
+        return digits == 0 ? -1 : value;
+    }
+    
+    private static int valueStart(String json, String name) {
+        int key = json.indexOf('"' + name + '"');
+        if (key < 0) {
+            return -1;
+        }
+        int i = key + name.length() + 2;
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) {
+            i++;
+        }
+        if (i >= json.length() || json.charAt(i) != ':') {
+            return -1;
+        }
+        i++;
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
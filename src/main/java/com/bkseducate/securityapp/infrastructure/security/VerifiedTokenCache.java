@@ -0,0 +1,216 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import com.bkseducate.securityapp.domain.model.VerifiedAccessToken;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché acotada de access tokens ya verificados
+ * 
+ * - Clave: SHA-256 del token compacto (no se guarda el token en memoria)
+ * - Tamaño máximo configurable con desalojo FIFO (el más antiguo primero)
+ * - Una entrada nunca se sirve después del exp del token
+ * - La cola de inserción guarda la clave junto con su entrada: al desalojar solo se borra del mapa
+ *   si la entrada sigue siendo la misma, así un nodo obsoleto (invalidado o expirado) nunca desaloja
+ *   la entrada nueva de una clave que se volvió a añadir
+ * - Contadores de hits, misses, desalojos y expiraciones expuestos en Micrometer
+ */
+@Component
+public class VerifiedTokenCache {
+    
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    });
+    
+    private final boolean enabled;
+    private final int maxSize;
+    
+    private final Map<TokenDigest, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Queued> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedKeys = new AtomicInteger();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    
+    @Autowired
+    public VerifiedTokenCache(
+            @Value("${jwt.cache.enabled:false}") boolean enabled,
+            @Value("${jwt.cache.max-size:10000}") int maxSize,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this(enabled, maxSize);
+        meterRegistry.ifAvailable(this::bindTo);
+    }
+    
+    public VerifiedTokenCache(boolean enabled, int maxSize) {
+        if (enabled && maxSize <= 0) {
+            throw new IllegalArgumentException("jwt.cache.max-size debe ser mayor que 0");
+        }
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+    }
+    
+    /**
+     * Caché deshabilitada (todas las consultas son miss y no se almacena nada)
+     */
+    public static VerifiedTokenCache disabled() {
+        return new VerifiedTokenCache(false, 0);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Retorna el token verificado si está en caché y no ha expirado, o null
+     */
+    public VerifiedAccessToken get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        TokenDigest key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            if (entries.remove(key, entry)) {
+                expirations.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.token();
+    }
+    
+    /**
+     * Almacena un token recién verificado
+     */
+    public void put(String token, VerifiedAccessToken verified) {
+        if (!enabled || verified.expiresAt() == null) {
+            return;
+        }
+        long expiresAtMillis = verified.expiresAt().toEpochMilli();
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        TokenDigest key = digest(token);
+        Entry entry = new Entry(verified, expiresAtMillis);
+        if (entries.putIfAbsent(key, entry) == null) {
+            insertionOrder.offer(new Queued(key, entry));
+            queuedKeys.incrementAndGet();
+            evictIfNeeded();
+        }
+    }
+    
+    /**
+     * Invalida una entrada (p. ej. cuando el token se revoca)
+     */
+    public void invalidate(String token) {
+        if (enabled) {
+            entries.remove(digest(token));
+        }
+    }
+    
+    public void clear() {
+        entries.clear();
+        while (insertionOrder.poll() != null) {
+            queuedKeys.decrementAndGet();
+        }
+    }
+    
+    public long hitCount() {
+        return hits.sum();
+    }
+    
+    public long missCount() {
+        return misses.sum();
+    }
+    
+    public long evictionCount() {
+        return evictions.sum();
+    }
+    
+    public long expirationCount() {
+        return expirations.sum();
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    // Cada entrada del mapa tiene su nodo en la cola, así que acotar la cola acota el mapa;
+    // los nodos obsoletos se descartan sin tocar el mapa
+    private void evictIfNeeded() {
+        while (queuedKeys.get() > maxSize) {
+            Queued oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queuedKeys.decrementAndGet();
+            if (entries.remove(oldest.key(), oldest.entry())) {
+                if (oldest.entry().expiresAtMillis() <= System.currentTimeMillis()) {
+                    expirations.increment();
+                } else {
+                    evictions.increment();
+                }
+            }
+        }
+    }
+    
+    private void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("security.jwt.cache.hits", this, VerifiedTokenCache::hitCount)
+            .description("Access tokens servidos desde la caché")
+            .register(registry);
+        FunctionCounter.builder("security.jwt.cache.misses", this, VerifiedTokenCache::missCount)
+            .description("Access tokens que requirieron verificación completa")
+            .register(registry);
+        FunctionCounter.builder("security.jwt.cache.evictions", this, VerifiedTokenCache::evictionCount)
+            .description("Entradas desalojadas por límite de tamaño")
+            .register(registry);
+        FunctionCounter.builder("security.jwt.cache.expirations", this, VerifiedTokenCache::expirationCount)
+            .description("Entradas descartadas por expiración del token")
+            .register(registry);
+        Gauge.builder("security.jwt.cache.size", this, VerifiedTokenCache::size)
+            .description("Entradas actuales en la caché")
+            .register(registry);
+    }
+    
+    private static TokenDigest digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer buffer = ByteBuffer.wrap(hash);
+        return new TokenDigest(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+    }
+    
+    private record TokenDigest(long h0, long h1, long h2, long h3) {
+    }
+    
+    private record Entry(VerifiedAccessToken token, long expiresAtMillis) {
+    }
+    
+    private record Queued(TokenDigest key, Entry entry) {
+    }
+}
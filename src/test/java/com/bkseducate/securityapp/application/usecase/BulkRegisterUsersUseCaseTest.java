@@ -0,0 +1,151 @@
+package com.bkseducate.securityapp.application.usecase;
+
+import com.bkseducate.securityapp.application.dto.BulkRegisterResult;
+import com.bkseducate.securityapp.application.dto.BulkRegisterResult.Status;
+import com.bkseducate.securityapp.application.dto.RegisterRequest;
+import com.bkseducate.securityapp.domain.model.Role;
+import com.bkseducate.securityapp.domain.model.User;
+import com.bkseducate.securityapp.domain.ports.PasswordService;
+import com.bkseducate.securityapp.domain.ports.RoleRepository;
+import com.bkseducate.securityapp.domain.ports.UserRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Registro en lote: un resultado por usuario, en orden, y los rechazos de una fila no afectan al resto
+ */
+class BulkRegisterUsersUseCaseTest {
+    
+    private static final ValidatorFactory VALIDATORS = Validation.buildDefaultValidatorFactory();
+    
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final PasswordService passwordService = mock(PasswordService.class);
+    private final Validator validator = VALIDATORS.getValidator();
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    
+    // Emails en users y lotes enviados a insertAll
+    private final Set<String> registered = new HashSet<>();
+    private final List<List<String>> insertedBatches = new ArrayList<>();
+    
+    @AfterAll
+    static void closeValidators() {
+        VALIDATORS.close();
+    }
+    
+    @BeforeEach
+    void setUp() {
+        when(roleRepository.findByAuthority("ROLE_USER")).thenReturn(Optional.of(Role.create("USER", "ROLE_USER")));
+        when(userRepository.findExistingEmails(any())).thenAnswer(invocation -> {
+            Collection<String> emails = invocation.getArgument(0);
+            Set<String> existing = new HashSet<>(emails);
+            existing.retainAll(registered);
+            return existing;
+        });
+        when(userRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            insertedBatches.add(users.stream().map(User::getEmail).toList());
+            return users.stream().map(user -> registered.add(user.getEmail())).toList();
+        });
+        when(passwordService.hashAll(anyList())).thenAnswer(invocation -> {
+            List<String> plain = invocation.getArgument(0);
+            return plain.stream().map(password -> "hash:" + password).toList();
+        });
+    }
+    
+    @Test
+    void reportsEveryRowInInputOrder() {
+        registered.add("luis@test.com");
+        
+        List<BulkRegisterResult> results = run(10,
+            new RegisterRequest("ana@test.com", "secret1"),
+            null,
+            new RegisterRequest("no-es-un-email", "secret1"),
+            new RegisterRequest("Luis@Test.com", "secret1"),
+            new RegisterRequest("eva@test.com", "123"),
+            new RegisterRequest("ANA@test.com", "secret1"));
+        
+        assertThat(results).extracting(BulkRegisterResult::index).containsExactly(1, 2, 3, 4, 5, 6);
+        assertThat(results).extracting(BulkRegisterResult::status).containsExactly(
+            Status.CREATED, Status.INVALID, Status.INVALID, Status.DUPLICATE, Status.INVALID, Status.DUPLICATE);
+        assertThat(results.get(0).id()).isNotNull();
+        assertThat(results.get(1).message()).isEqualTo("JSON inválido");
+        assertThat(results.get(3).message()).isEqualTo("Email ya registrado");
+        assertThat(results.get(5).message()).isEqualTo("Email repetido en la entrada");
+        // Solo se hashea e inserta el usuario válido y nuevo
+        assertThat(insertedBatches).containsExactly(List.of("ana@test.com"));
+    }
+    
+    @Test
+    void rowLostToTheUniqueConstraintIsReportedAsDuplicate() {
+        // Registrado entre la consulta de emails y el insert
+        when(userRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            return users.stream().map(user -> !user.getEmail().equals("luis@test.com")).toList();
+        });
+        
+        List<BulkRegisterResult> results = run(10,
+            new RegisterRequest("ana@test.com", "secret1"),
+            new RegisterRequest("luis@test.com", "secret1"));
+        
+        assertThat(results).extracting(BulkRegisterResult::status).containsExactly(Status.CREATED, Status.DUPLICATE);
+        assertThat(results.get(1).id()).isNull();
+    }
+    
+    @Test
+    void rowRejectedByTheHashingPoolFailsAlone() {
+        when(passwordService.hashAll(anyList())).thenAnswer(invocation -> {
+            List<String> plain = invocation.getArgument(0);
+            return plain.stream().map(password -> password.equals("saturado") ? null : "hash:" + password).toList();
+        });
+        
+        List<BulkRegisterResult> results = run(10,
+            new RegisterRequest("ana@test.com", "secret1"),
+            new RegisterRequest("luis@test.com", "saturado"),
+            new RegisterRequest("eva@test.com", "secret1"));
+        
+        assertThat(results).extracting(BulkRegisterResult::status)
+            .containsExactly(Status.CREATED, Status.FAILED, Status.CREATED);
+        assertThat(insertedBatches).containsExactly(List.of("ana@test.com", "eva@test.com"));
+    }
+    
+    @Test
+    void repeatedEmailInALaterChunkIsCaughtByTheRegisteredCheck() {
+        List<BulkRegisterResult> results = run(2,
+            new RegisterRequest("ana@test.com", "secret1"),
+            new RegisterRequest("luis@test.com", "secret1"),
+            new RegisterRequest("ana@test.com", "secret1"));
+        
+        assertThat(results).extracting(BulkRegisterResult::status)
+            .containsExactly(Status.CREATED, Status.CREATED, Status.DUPLICATE);
+        assertThat(results.get(2).message()).isEqualTo("Email ya registrado");
+        assertThat(insertedBatches).containsExactly(List.of("ana@test.com", "luis@test.com"));
+    }
+    
+    private List<BulkRegisterResult> run(int chunkSize, RegisterRequest... requests) {
+        BulkRegisterUsersUseCase useCase = new BulkRegisterUsersUseCase(
+            userRepository, roleRepository, passwordService, validator, transactionManager, chunkSize);
+        List<BulkRegisterResult> results = new ArrayList<>();
+        useCase.execute(Arrays.asList(requests).iterator(), results::add);
+        return results;
+    }
+}
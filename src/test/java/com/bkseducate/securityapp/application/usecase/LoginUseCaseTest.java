@@ -0,0 +1,139 @@
+package com.bkseducate.securityapp.application.usecase;
+
+import com.bkseducate.securityapp.application.dto.LoginRequest;
+import com.bkseducate.securityapp.domain.exceptions.InvalidCredentialsException;
+import com.bkseducate.securityapp.domain.exceptions.ServiceOverloadedException;
+import com.bkseducate.securityapp.domain.exceptions.TooManyLoginAttemptsException;
+import com.bkseducate.securityapp.domain.model.User;
+import com.bkseducate.securityapp.domain.model.UserStatus;
+import com.bkseducate.securityapp.domain.ports.PasswordService;
+import com.bkseducate.securityapp.domain.ports.RefreshTokenRepository;
+import com.bkseducate.securityapp.domain.ports.StatelessRefreshTokenCodec;
+import com.bkseducate.securityapp.domain.ports.TokenService;
+import com.bkseducate.securityapp.domain.ports.UserRepository;
+import com.bkseducate.securityapp.infrastructure.security.StripedLoginThrottle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Login con el límite de intentos: la reserva del intento precede a BCrypt, también con
+ * requests concurrentes del mismo email
+ */
+class LoginUseCaseTest {
+    
+    private static final String EMAIL = "ana@test.com";
+    private static final int MAX_FAILURES = 5;
+    
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordService passwordService = mock(PasswordService.class);
+    private final TokenService tokenService = mock(TokenService.class);
+    private final StatelessRefreshTokenCodec codec = mock(StatelessRefreshTokenCodec.class);
+    
+    private final StripedLoginThrottle throttle = new StripedLoginThrottle(true, 50_000,
+        MAX_FAILURES, Duration.ofMinutes(1), 1_000, Duration.ofMinutes(1));
+    
+    private LoginUseCase useCase;
+    
+    @BeforeEach
+    void setUp() {
+        User user = User.reconstruct(UUID.randomUUID(), EMAIL, "hash", Set.of(), UserStatus.ACTIVE, 0);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        useCase = new LoginUseCase(userRepository, passwordService, tokenService, mock(RefreshTokenRepository.class),
+            codec, throttle, mock(PlatformTransactionManager.class), 900_000L, 10);
+    }
+    
+    @Test
+    void concurrentAttemptsCannotExceedTheLimitWhileBcryptIsRunning() throws Exception {
+        int threads = 4 * MAX_FAILURES;
+        AtomicInteger verifications = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch bcryptRunning = new CountDownLatch(1);
+        // Las verificaciones quedan en curso hasta que el resto de requests haya pasado por el límite
+        when(passwordService.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            verifications.incrementAndGet();
+            bcryptRunning.await(5, TimeUnit.SECONDS);
+            return false;
+        });
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        useCase.execute(new LoginRequest(EMAIL, "incorrecta"), "203.0.113.7");
+                    } catch (TooManyLoginAttemptsException ex) {
+                        rejected.incrementAndGet();
+                    } catch (InvalidCredentialsException ex) {
+                        // Contraseña incorrecta
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (rejected.get() < threads - MAX_FAILURES && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            bcryptRunning.countDown();
+            for (Future<?> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertThat(verifications.get()).isEqualTo(MAX_FAILURES);
+        assertThat(rejected.get()).isEqualTo(threads - MAX_FAILURES);
+    }
+    
+    @Test
+    void failedAttemptsStayConsumed() {
+        when(passwordService.matches(anyString(), anyString())).thenReturn(false);
+        
+        for (int i = 0; i < MAX_FAILURES; i++) {
+            assertThatThrownBy(() -> useCase.execute(new LoginRequest(EMAIL, "incorrecta"), null))
+                .isInstanceOf(InvalidCredentialsException.class);
+        }
+        
+        assertThatThrownBy(() -> useCase.execute(new LoginRequest(EMAIL, "incorrecta"), null))
+            .isInstanceOf(TooManyLoginAttemptsException.class);
+    }
+    
+    @Test
+    void overloadedHashingReleasesTheAttempt() {
+        when(passwordService.matches(anyString(), anyString()))
+            .thenThrow(new ServiceOverloadedException("Pool de hashing saturado", 1));
+        
+        for (int i = 0; i < 2 * MAX_FAILURES; i++) {
+            assertThatThrownBy(() -> useCase.execute(new LoginRequest(EMAIL, "secreta"), null))
+                .isInstanceOf(ServiceOverloadedException.class);
+        }
+        
+        assertThat(throttle.trackedEntries()).isZero();
+        assertThatCode(() -> throttle.acquire(EMAIL, null)).doesNotThrowAnyException();
+    }
+}
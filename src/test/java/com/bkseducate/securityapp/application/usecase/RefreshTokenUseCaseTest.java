@@ -0,0 +1,221 @@
+package com.bkseducate.securityapp.application.usecase;
+
+import com.bkseducate.securityapp.application.dto.LoginResponse;
+import com.bkseducate.securityapp.application.dto.RefreshTokenRequest;
+import com.bkseducate.securityapp.domain.exceptions.InvalidCredentialsException;
+import com.bkseducate.securityapp.domain.model.RefreshToken;
+import com.bkseducate.securityapp.domain.model.RefreshTokenWithOwner;
+import com.bkseducate.securityapp.domain.model.Role;
+import com.bkseducate.securityapp.domain.model.SessionOwner;
+import com.bkseducate.securityapp.domain.model.StatelessRefreshToken;
+import com.bkseducate.securityapp.domain.model.UserStatus;
+import com.bkseducate.securityapp.domain.ports.AccessTokenRevocationService;
+import com.bkseducate.securityapp.domain.ports.RefreshTokenRepository;
+import com.bkseducate.securityapp.domain.ports.StatelessRefreshTokenCodec;
+import com.bkseducate.securityapp.domain.ports.TokenService;
+import com.bkseducate.securityapp.domain.ports.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rotación de refresh tokens: cada uso consume el token y emite el siguiente de la familia;
+ * presentar un token ya consumido revoca la familia entera
+ * Refresh sin estado: la época del token debe coincidir con la del usuario
+ */
+class RefreshTokenUseCaseTest {
+    
+    private static final String PRESENTED = "refresh-presentado";
+    private static final String SUCCESSOR = "refresh-sucesor";
+    
+    private final RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+    private final TokenService tokenService = mock(TokenService.class);
+    private final StatelessRefreshTokenCodec codec = mock(StatelessRefreshTokenCodec.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AccessTokenRevocationService revocationService = mock(AccessTokenRevocationService.class);
+    
+    private final UUID userId = UUID.randomUUID();
+    private final UUID familyId = UUID.randomUUID();
+    private final Set<Role> roles = Set.of(Role.create("USER", "ROLE_USER"));
+    
+    private RefreshTokenUseCase useCase;
+    
+    @BeforeEach
+    void setUp() {
+        when(codec.decode(anyString())).thenReturn(Optional.empty());
+        when(tokenService.generateRefreshToken()).thenReturn(SUCCESSOR);
+        when(tokenService.generateAccessToken(any(), any(), any())).thenReturn("access");
+        useCase = new RefreshTokenUseCase(refreshTokenRepository, userRepository, tokenService, codec,
+            revocationService, mock(PlatformTransactionManager.class), 900_000L);
+    }
+    
+    @Test
+    void rotationConsumesTheTokenAndIssuesTheNextOfTheFamily() {
+        RefreshToken presented = token(LocalDateTime.now().plusDays(7), false);
+        ownedBy(presented, UserStatus.ACTIVE);
+        when(refreshTokenRepository.consume(presented)).thenReturn(true);
+        
+        LoginResponse response = useCase.execute(new RefreshTokenRequest(PRESENTED));
+        
+        assertThat(response.accessToken()).isEqualTo("access");
+        assertThat(response.refreshToken()).isEqualTo(SUCCESSOR);
+        ArgumentCaptor<RefreshToken> next = ArgumentCaptor.forClass(RefreshToken.class);
+        // La rotación no abre sesión: no aplica el límite de sesiones
+        verify(refreshTokenRepository).insert(next.capture(), eq(0));
+        assertThat(next.getValue().getFamilyId()).isEqualTo(familyId);
+        assertThat(next.getValue().getUserId()).isEqualTo(userId);
+        assertThat(next.getValue().getExpiresAt()).isEqualTo(presented.getExpiresAt());
+        assertThat(next.getValue().getId()).isNotEqualTo(presented.getId());
+        verify(tokenService).generateAccessToken(userId, "ana@test.com", roles);
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+    }
+    
+    @Test
+    void reusedTokenRevokesTheWholeFamily() {
+        RefreshToken presented = token(LocalDateTime.now().plusDays(7), true);
+        ownedBy(presented, UserStatus.ACTIVE);
+        
+        assertThatThrownBy(() -> useCase.execute(new RefreshTokenRequest(PRESENTED)))
+            .isInstanceOf(InvalidCredentialsException.class);
+        
+        verify(refreshTokenRepository).revokeFamily(familyId);
+        verify(refreshTokenRepository, never()).consume(any());
+        verify(refreshTokenRepository, never()).insert(any(), anyInt());
+        verify(tokenService, never()).generateAccessToken(any(), any(), any());
+    }
+    
+    @Test
+    void losingTheConsumeRaceRevokesTheWholeFamily() {
+        // Otra petición consumió el token entre la lectura y el UPDATE condicional
+        RefreshToken presented = token(LocalDateTime.now().plusDays(7), false);
+        ownedBy(presented, UserStatus.ACTIVE);
+        when(refreshTokenRepository.consume(presented)).thenReturn(false);
+        
+        assertThatThrownBy(() -> useCase.execute(new RefreshTokenRequest(PRESENTED)))
+            .isInstanceOf(InvalidCredentialsException.class);
+        
+        verify(refreshTokenRepository).revokeFamily(familyId);
+        verify(refreshTokenRepository, never()).insert(any(), anyInt());
+    }
+    
+    @Test
+    void expiredTokenIsRejectedWithoutRevokingTheFamily() {
+        RefreshToken presented = token(LocalDateTime.now().minusMinutes(1), true);
+        ownedBy(presented, UserStatus.ACTIVE);
+        
+        assertThatThrownBy(() -> useCase.execute(new RefreshTokenRequest(PRESENTED)))
+            .isInstanceOf(InvalidCredentialsException.class);
+        
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+        verify(refreshTokenRepository, never()).consume(any());
+    }
+    
+    @Test
+    void inactiveOwnerIsRejectedBeforeConsumingTheToken() {
+        RefreshToken presented = token(LocalDateTime.now().plusDays(7), false);
+        ownedBy(presented, UserStatus.BLOCKED);
+        
+        assertThatThrownBy(() -> useCase.execute(new RefreshTokenRequest(PRESENTED)))
+            .isInstanceOf(InvalidCredentialsException.class)
+            .hasMessageContaining("bloqueado");
+        
+        verify(refreshTokenRepository, never()).consume(any());
+    }
+    
+    @Test
+    void unknownTokenIsRejected() {
+        when(refreshTokenRepository.findWithOwnerByToken(PRESENTED)).thenReturn(Optional.empty());
+        
+        assertThatThrownBy(() -> useCase.execute(new RefreshTokenRequest(PRESENTED)))
+            .isInstanceOf(InvalidCredentialsException.class);
+        
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+    }
+    
+    @Test
+    void statelessRefreshReturnsTheSameTokenWhenTheEpochMatches() {
+        statelessToken(3);
+        sessionOwner(UserStatus.ACTIVE, 3);
+        
+        LoginResponse response = useCase.execute(new RefreshTokenRequest(PRESENTED));
+        
+        assertThat(response.refreshToken()).isEqualTo(PRESENTED);
+        verify(tokenService).generateAccessToken(userId, "ana@test.com", roles);
+        verify(userRepository, never()).findById(any());
+        verify(refreshTokenRepository, never()).findWithOwnerByToken(any());
+    }
+    
+    @Test
+    void statelessRefreshIsRejectedAfterTheEpochChanges() {
+        // logout-all o cambio de contraseña posterior a la emisión
+        statelessToken(3);
+        sessionOwner(UserStatus.ACTIVE, 4);
+        
+        assertThatThrownBy(() -> useCase.execute(new RefreshTokenRequest(PRESENTED)))
+            .isInstanceOf(InvalidCredentialsException.class);
+        
+        verify(tokenService, never()).generateAccessToken(any(), any(), any());
+    }
+    
+    @Test
+    void statelessRefreshIsRejectedForInactiveOrRevokedTokens() {
+        statelessToken(3);
+        sessionOwner(UserStatus.BLOCKED, 3);
+        assertThatThrownBy(() -> useCase.execute(new RefreshTokenRequest(PRESENTED)))
+            .isInstanceOf(InvalidCredentialsException.class);
+        
+        when(revocationService.isRevoked("token-id")).thenReturn(true);
+        assertThatThrownBy(() -> useCase.execute(new RefreshTokenRequest(PRESENTED)))
+            .isInstanceOf(InvalidCredentialsException.class);
+        verify(tokenService, never()).generateAccessToken(any(), any(), any());
+    }
+    
+    @Test
+    void statelessRefreshOfADeletedUserIsRejectedLikeAnUnknownToken() {
+        statelessToken(3);
+        when(userRepository.findSessionOwner(userId)).thenReturn(Optional.empty());
+        
+        assertThatThrownBy(() -> useCase.execute(new RefreshTokenRequest(PRESENTED)))
+            .isInstanceOf(InvalidCredentialsException.class)
+            .hasMessage("Refresh token inválido");
+        verify(tokenService, never()).generateAccessToken(any(), any(), any());
+    }
+    
+    private void statelessToken(long sessionEpoch) {
+        when(codec.decode(PRESENTED)).thenReturn(Optional.of(new StatelessRefreshToken(
+            "token-id", userId, Instant.now(), Instant.now().plusSeconds(3600), sessionEpoch)));
+    }
+    
+    private void sessionOwner(UserStatus status, long sessionEpoch) {
+        when(userRepository.findSessionOwner(userId))
+            .thenReturn(Optional.of(new SessionOwner(userId, "ana@test.com", status, roles, sessionEpoch)));
+    }
+    
+    private RefreshToken token(LocalDateTime expiresAt, boolean revoked) {
+        return RefreshToken.reconstruct(UUID.randomUUID(), userId, familyId, PRESENTED, expiresAt, revoked,
+            revoked ? LocalDateTime.now().minusMinutes(5) : null);
+    }
+    
+    private void ownedBy(RefreshToken token, UserStatus status) {
+        when(refreshTokenRepository.findWithOwnerByToken(PRESENTED))
+            .thenReturn(Optional.of(new RefreshTokenWithOwner(token, "ana@test.com", status, roles)));
+    }
+}
@@ -0,0 +1,139 @@
+package com.bkseducate.securityapp.infrastructure.persistence.adapters.out.persistence;
+
+import com.bkseducate.securityapp.domain.model.RefreshToken;
+import com.bkseducate.securityapp.infrastructure.persistence.converter.UuidJdbcBinder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Write-behind: los errores transitorios se reintentan con límite y los permanentes se aíslan fila a fila
+ * sin bloquear el resto de la cola
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(UuidJdbcBinder.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenBatchWriterTest {
+    
+    private final UUID userId = UUID.randomUUID();
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private UuidJdbcBinder uuids;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM refresh_tokens");
+    }
+    
+    @Test
+    void permanentFailureDropsOnlyTheBadRow() {
+        RefreshTokenBatchWriter writer = writer(jdbcTemplate, 100, 10);
+        writer.insert(token("duplicado"), 0);
+        writer.flush();
+        
+        writer.insert(token("antes"), 0);
+        writer.insert(token("duplicado"), 0);
+        writer.insert(token("despues"), 0);
+        
+        assertThatCode(writer::flush).doesNotThrowAnyException();
+        assertThat(writer.pendingCount()).isZero();
+        assertThat(rows()).isEqualTo(3);
+    }
+    
+    @Test
+    void transientFailureRequeuesTheBatchUntilItSucceeds() {
+        JdbcTemplate failingOnce = spy(jdbcTemplate);
+        doThrow(new QueryTimeoutException("timeout")).doCallRealMethod()
+            .when(failingOnce).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        RefreshTokenBatchWriter writer = writer(failingOnce, 100, 10);
+        writer.insert(token("a"), 0);
+        writer.insert(token("b"), 0);
+        
+        assertThatThrownBy(writer::flush).isInstanceOf(QueryTimeoutException.class);
+        assertThat(writer.pendingCount()).isEqualTo(2);
+        assertThat(rows()).isZero();
+        
+        writer.flush();
+        
+        assertThat(writer.pendingCount()).isZero();
+        assertThat(rows()).isEqualTo(2);
+    }
+    
+    @Test
+    void transientFailureIsDroppedOnceRetriesAreExhausted() {
+        JdbcTemplate alwaysFailing = spy(jdbcTemplate);
+        doThrow(new QueryTimeoutException("timeout"))
+            .when(alwaysFailing).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        RefreshTokenBatchWriter writer = writer(alwaysFailing, 100, 2);
+        writer.insert(token("a"), 0);
+        
+        assertThatThrownBy(writer::flush).isInstanceOf(QueryTimeoutException.class);
+        assertThatThrownBy(writer::flush).isInstanceOf(QueryTimeoutException.class);
+        assertThatCode(writer::flush).doesNotThrowAnyException();
+        
+        assertThat(writer.pendingCount()).isZero();
+    }
+    
+    @Test
+    void fullQueueWritesTheNewTokenDirectly() {
+        RefreshTokenBatchWriter writer = writer(jdbcTemplate, 2, 10);
+        
+        writer.insert(token("a"), 0);
+        writer.insert(token("b"), 0);
+        assertThat(rows()).isZero();
+        writer.insert(token("c"), 0);
+        
+        assertThat(writer.pendingCount()).isZero();
+        assertThat(rows()).isEqualTo(3);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private RefreshTokenBatchWriter writer(JdbcTemplate template, int capacity, int maxRetries) {
+        return new RefreshTokenBatchWriter(template, uuids, transactionManager, true, capacity, 500, true,
+            maxRetries, mock(ObjectProvider.class));
+    }
+    
+    private RefreshToken token(String value) {
+        return RefreshToken.create(userId, value, LocalDateTime.now().plusDays(7));
+    }
+    
+    private int rows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM refresh_tokens", Integer.class);
+    }
+}
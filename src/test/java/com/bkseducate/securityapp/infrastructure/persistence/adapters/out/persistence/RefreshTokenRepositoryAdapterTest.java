@@ -0,0 +1,184 @@
+package com.bkseducate.securityapp.infrastructure.persistence.adapters.out.persistence;
+
+import com.bkseducate.securityapp.domain.model.ActiveSession;
+import com.bkseducate.securityapp.domain.model.RefreshToken;
+import com.bkseducate.securityapp.domain.model.Role;
+import com.bkseducate.securityapp.domain.model.RefreshTokenWithOwner;
+import com.bkseducate.securityapp.domain.model.UserStatus;
+import com.bkseducate.securityapp.infrastructure.persistence.converter.UuidJdbcBinder;
+import com.bkseducate.securityapp.infrastructure.persistence.entity.RefreshTokenEntity;
+import com.bkseducate.securityapp.infrastructure.persistence.entity.RoleEntity;
+import com.bkseducate.securityapp.infrastructure.persistence.entity.UserEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lectura de /auth/refresh: token, estado, email y roles del usuario en una sola sentencia
+ * Límite de sesiones: el INSERT de una sesión nueva revoca las más antiguas que excedan el máximo
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({RefreshTokenRepositoryAdapter.class, RefreshTokenBatchWriter.class, UuidJdbcBinder.class})
+class RefreshTokenRepositoryAdapterTest {
+    
+    @Autowired
+    private RefreshTokenRepositoryAdapter adapter;
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    @Test
+    void findWithOwnerByTokenReadsTokenUserAndRolesInOneStatement() {
+        RoleEntity user = entityManager.persist(new RoleEntity(UUID.randomUUID(), "USER", "ROLE_USER"));
+        RoleEntity admin = entityManager.persist(new RoleEntity(UUID.randomUUID(), "ADMIN", "ROLE_ADMIN"));
+        UserEntity owner = persistUser("ana@test.com", Set.of(user, admin), UserStatus.ACTIVE);
+        RefreshTokenEntity token = persistToken(owner.getId(), "refresh-ana");
+        
+        Optional<RefreshTokenWithOwner> found = countingStatements(() -> adapter.findWithOwnerByToken("refresh-ana"));
+        
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(found).isPresent();
+        assertThat(found.get().token().getId()).isEqualTo(token.getId());
+        assertThat(found.get().token().getUserId()).isEqualTo(owner.getId());
+        assertThat(found.get().email()).isEqualTo("ana@test.com");
+        assertThat(found.get().isOwnerActive()).isTrue();
+        assertThat(found.get().roles().stream().map(Role::getAuthority).collect(Collectors.toSet()))
+            .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+    
+    @Test
+    void findWithOwnerByTokenReturnsOwnerWithoutRolesInOneStatement() {
+        UserEntity owner = persistUser("luis@test.com", Set.of(), UserStatus.BLOCKED);
+        persistToken(owner.getId(), "refresh-luis");
+        
+        Optional<RefreshTokenWithOwner> found = countingStatements(() -> adapter.findWithOwnerByToken("refresh-luis"));
+        
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(found).isPresent();
+        assertThat(found.get().roles()).isEmpty();
+        assertThat(found.get().isOwnerActive()).isFalse();
+    }
+    
+    @Test
+    void findWithOwnerByTokenIsEmptyForUnknownTokenOrDeletedUser() {
+        // refresh_tokens.user_id no tiene clave foránea: el token de un usuario borrado sigue en la tabla
+        persistToken(UUID.randomUUID(), "refresh-orphan");
+        
+        assertThat(countingStatements(() -> adapter.findWithOwnerByToken("refresh-orphan"))).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(countingStatements(() -> adapter.findWithOwnerByToken("unknown"))).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void insertBeyondTheSessionCapRevokesTheOldestSessions() {
+        UUID userId = UUID.randomUUID();
+        persistToken(userId, "refresh-1", LocalDateTime.now().plusDays(1));
+        persistToken(userId, "refresh-2", LocalDateTime.now().plusDays(2));
+        RefreshTokenEntity newer = persistToken(userId, "refresh-3", LocalDateTime.now().plusDays(3));
+        persistToken(UUID.randomUUID(), "refresh-otro", LocalDateTime.now().plusDays(1));
+        entityManager.flush();
+        
+        RefreshToken login = RefreshToken.create(userId, "refresh-4", LocalDateTime.now().plusDays(7));
+        adapter.insert(login, 2);
+        entityManager.clear();
+        
+        assertThat(adapter.findActiveSessions(userId, null, 10)).extracting(ActiveSession::tokenId)
+            .containsExactly(login.getId(), newer.getId());
+        assertThat(adapter.findByToken("refresh-1")).get().extracting(RefreshToken::isRevoked).isEqualTo(true);
+        assertThat(adapter.findByToken("refresh-2")).get().extracting(RefreshToken::isRevoked).isEqualTo(true);
+        assertThat(adapter.findByToken("refresh-1").get().getRevokedAt()).isNotNull();
+        assertThat(adapter.findByToken("refresh-otro")).get().extracting(RefreshToken::isRevoked).isEqualTo(false);
+    }
+    
+    @Test
+    void insertWithoutSessionCapKeepsEverySession() {
+        // La rotación inserta con máximo 0: no abre sesión ni desaloja ninguna
+        UUID userId = UUID.randomUUID();
+        persistToken(userId, "refresh-1", LocalDateTime.now().plusDays(1));
+        persistToken(userId, "refresh-2", LocalDateTime.now().plusDays(2));
+        entityManager.flush();
+        
+        adapter.insert(RefreshToken.create(userId, "refresh-3", LocalDateTime.now().plusDays(3)), 0);
+        entityManager.clear();
+        
+        assertThat(adapter.findActiveSessions(userId, null, 10)).hasSize(3);
+    }
+    
+    @Test
+    void sessionCapIgnoresRevokedAndExpiredSessions() {
+        UUID userId = UUID.randomUUID();
+        RefreshTokenEntity active = persistToken(userId, "refresh-activo", LocalDateTime.now().plusDays(2));
+        entityManager.persist(new RefreshTokenEntity(UUID.randomUUID(), userId, UUID.randomUUID(),
+            RefreshTokenRepositoryAdapter.sha256("refresh-revocado"), LocalDateTime.now().plusDays(3), true,
+            LocalDateTime.now().minusHours(1)));
+        persistToken(userId, "refresh-vencido", LocalDateTime.now().minusMinutes(1));
+        entityManager.flush();
+        
+        RefreshToken login = RefreshToken.create(userId, "refresh-nuevo", LocalDateTime.now().plusDays(7));
+        adapter.insert(login, 2);
+        entityManager.clear();
+        
+        assertThat(adapter.findActiveSessions(userId, null, 10)).extracting(ActiveSession::tokenId)
+            .containsExactly(login.getId(), active.getId());
+    }
+    
+    private UserEntity persistUser(String email, Set<RoleEntity> roles, UserStatus status) {
+        return entityManager.persist(new UserEntity(UUID.randomUUID(), email, "{noop}secret", roles, status));
+    }
+    
+    private RefreshTokenEntity persistToken(UUID userId, String token) {
+        return persistToken(userId, token, LocalDateTime.now().plusDays(7));
+    }
+    
+    private RefreshTokenEntity persistToken(UUID userId, String token, LocalDateTime expiresAt) {
+        return entityManager.persist(new RefreshTokenEntity(
+            UUID.randomUUID(),
+            userId,
+            UUID.randomUUID(),
+            RefreshTokenRepositoryAdapter.sha256(token),
+            expiresAt,
+            false,
+            null
+        ));
+    }
+    
+    /**
+     * Vacía el contexto de persistencia (nada en caché de primer nivel) y cuenta solo las sentencias de la lectura
+     */
+    private <T> T countingStatements(Supplier<T> read) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        return read.get();
+    }
+}
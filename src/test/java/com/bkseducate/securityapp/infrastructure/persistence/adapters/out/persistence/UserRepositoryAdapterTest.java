@@ -0,0 +1,134 @@
+package com.bkseducate.securityapp.infrastructure.persistence.adapters.out.persistence;
+
+import com.bkseducate.securityapp.domain.model.Role;
+import com.bkseducate.securityapp.domain.model.SessionOwner;
+import com.bkseducate.securityapp.domain.model.User;
+import com.bkseducate.securityapp.domain.model.UserStatus;
+import com.bkseducate.securityapp.infrastructure.persistence.converter.UuidJdbcBinder;
+import com.bkseducate.securityapp.infrastructure.persistence.entity.RoleEntity;
+import com.bkseducate.securityapp.infrastructure.persistence.entity.UserEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Alta en lote: los emails ya registrados se detectan por la restricción única sin abortar el resto
+ * Vista SessionOwner: una sentencia, cacheada hasta que cambia la época del usuario
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({UserRepositoryAdapter.class, SessionOwnerCache.class, UuidJdbcBinder.class})
+class UserRepositoryAdapterTest {
+    
+    @Autowired
+    private UserRepositoryAdapter adapter;
+    
+    @Autowired
+    private TestEntityManager entityManager;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Role userRole;
+    
+    @BeforeEach
+    void setUp() {
+        RoleEntity role = entityManager.persistAndFlush(new RoleEntity(UUID.randomUUID(), "USER", "ROLE_USER"));
+        userRole = Role.reconstruct(role.getId(), role.getName(), role.getAuthority());
+    }
+    
+    @Test
+    void insertAllCreatesUsersWithTheirRoles() {
+        List<User> users = List.of(newUser("ana@test.com"), newUser("luis@test.com"));
+        
+        assertThat(adapter.insertAll(users)).containsExactly(true, true);
+        
+        assertThat(count("SELECT COUNT(*) FROM users")).isEqualTo(2);
+        assertThat(count("SELECT COUNT(*) FROM user_roles")).isEqualTo(2);
+    }
+    
+    @Test
+    void insertAllReportsRegisteredEmailsWithoutAbortingTheBatch() {
+        entityManager.persistAndFlush(
+            new UserEntity(UUID.randomUUID(), "luis@test.com", "hash", Set.of(), UserStatus.ACTIVE));
+        List<User> users = List.of(newUser("ana@test.com"), newUser("luis@test.com"), newUser("eva@test.com"));
+        
+        assertThat(adapter.insertAll(users)).containsExactly(true, false, true);
+        
+        assertThat(count("SELECT COUNT(*) FROM users")).isEqualTo(3);
+        // Solo los usuarios creados reciben sus roles
+        assertThat(count("SELECT COUNT(*) FROM user_roles")).isEqualTo(2);
+    }
+    
+    @Test
+    void insertAllReportsEmailsRepeatedInsideTheBatch() {
+        List<User> users = List.of(newUser("ana@test.com"), newUser("ana@test.com"));
+        
+        assertThat(adapter.insertAll(users)).containsExactly(true, false);
+        assertThat(count("SELECT COUNT(*) FROM users")).isEqualTo(1);
+    }
+    
+    @Test
+    void findSessionOwnerReadsEpochStatusAndRolesInOneStatement() {
+        User user = newUser("ana@test.com");
+        adapter.insertAll(List.of(user));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear();
+        statistics.clear();
+        
+        Optional<SessionOwner> owner = adapter.findSessionOwner(user.getId());
+        
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(owner).isPresent();
+        assertThat(owner.get().email()).isEqualTo("ana@test.com");
+        assertThat(owner.get().isActive()).isTrue();
+        assertThat(owner.get().sessionEpoch()).isZero();
+        assertThat(owner.get().roles()).extracting(Role::getAuthority).containsExactly("ROLE_USER");
+        
+        // Segunda lectura desde la caché
+        adapter.findSessionOwner(user.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(adapter.findSessionOwner(UUID.randomUUID())).isEmpty();
+    }
+    
+    @Test
+    void incrementSessionEpochInvalidatesTheCachedOwner() {
+        User user = newUser("ana@test.com");
+        adapter.insertAll(List.of(user));
+        assertThat(adapter.findSessionOwner(user.getId())).get().extracting(SessionOwner::sessionEpoch).isEqualTo(0L);
+        
+        adapter.incrementSessionEpoch(user.getId());
+        
+        assertThat(adapter.findSessionOwner(user.getId())).get().extracting(SessionOwner::sessionEpoch).isEqualTo(1L);
+    }
+    
+    private User newUser(String email) {
+        User user = User.create(email, "$2a$10$hash");
+        user.assignRole(userRole);
+        return user;
+    }
+    
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
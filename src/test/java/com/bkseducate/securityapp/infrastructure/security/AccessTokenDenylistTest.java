@@ -0,0 +1,149 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import com.bkseducate.securityapp.infrastructure.persistence.repository.RevokedAccessTokenJpaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Denylist de access tokens: filtro de Bloom sin falsos negativos, sincronización entre nodos
+ * y publicación en memoria solo tras el commit
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccessTokenDenylistTest {
+    
+    @Autowired
+    private RevokedAccessTokenJpaRepository repository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+    
+    @Test
+    void saturatedBloomFilterNeverHidesARevokedToken() {
+        // 64 bits para 5000 jtis: el filtro está lleno y solo el mapa exacto decide
+        AccessTokenDenylist denylist = new AccessTokenDenylist(64);
+        List<String> revoked = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String jti = UUID.randomUUID().toString();
+            revoked.add(jti);
+            denylist.revoke(jti, inOneMinute());
+        }
+        
+        assertThat(revoked).allMatch(denylist::isRevoked);
+        assertThat(denylist.isRevoked(UUID.randomUUID().toString())).isFalse();
+    }
+    
+    @Test
+    void rebuildAfterPurgeKeepsLiveEntries() throws InterruptedException {
+        AccessTokenDenylist denylist = new AccessTokenDenylist(1024);
+        List<String> live = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String jti = UUID.randomUUID().toString();
+            live.add(jti);
+            denylist.revoke(jti, inOneMinute());
+        }
+        denylist.revoke("short-lived", Instant.now().plusMillis(50));
+        
+        Thread.sleep(100);
+        denylist.synchronize();
+        
+        assertThat(denylist.isRevoked("short-lived")).isFalse();
+        assertThat(denylist.size()).isEqualTo(200);
+        assertThat(live).allMatch(denylist::isRevoked);
+    }
+    
+    @Test
+    void revocationReachesOtherNodesOnSync() {
+        AccessTokenDenylist nodeA = persistentDenylist();
+        AccessTokenDenylist nodeB = persistentDenylist();
+        nodeB.synchronize();
+        
+        transactionTemplate.executeWithoutResult(status -> nodeA.revoke("jti-a", inOneMinute()));
+        
+        assertThat(nodeA.isRevoked("jti-a")).isTrue();
+        assertThat(nodeB.isRevoked("jti-a")).isFalse();
+        nodeB.synchronize();
+        assertThat(nodeB.isRevoked("jti-a")).isTrue();
+    }
+    
+    @Test
+    void revokingTheSameTokenTwiceIsNotAnError() {
+        AccessTokenDenylist nodeA = persistentDenylist();
+        AccessTokenDenylist nodeB = persistentDenylist();
+        
+        transactionTemplate.executeWithoutResult(status -> nodeA.revoke("jti-a", inOneMinute()));
+        transactionTemplate.executeWithoutResult(status -> {
+            nodeB.revoke("jti-a", inOneMinute());
+            // La clave duplicada solo deshace su sentencia: la transacción sigue siendo utilizable
+            nodeB.revoke("jti-b", inOneMinute());
+        });
+        
+        assertThat(repository.count()).isEqualTo(2);
+        assertThat(nodeB.isRevoked("jti-a")).isTrue();
+        assertThat(nodeB.isRevoked("jti-b")).isTrue();
+    }
+    
+    @Test
+    void inMemoryEntryIsPublishedOnlyAfterCommit() {
+        AccessTokenDenylist denylist = persistentDenylist();
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            denylist.revoke("jti-committed", inOneMinute());
+            assertThat(denylist.isRevoked("jti-committed")).isFalse();
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            denylist.revoke("jti-rolled-back", inOneMinute());
+            status.setRollbackOnly();
+        });
+        
+        assertThat(denylist.isRevoked("jti-committed")).isTrue();
+        assertThat(denylist.isRevoked("jti-rolled-back")).isFalse();
+        assertThat(repository.count()).isEqualTo(1);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private AccessTokenDenylist persistentDenylist() {
+        return new AccessTokenDenylist(repository, jdbcTemplate, transactionManager, 500, 30_000, 1 << 16,
+            mock(ObjectProvider.class));
+    }
+    
+    private static Instant inOneMinute() {
+        return Instant.now().plusSeconds(60);
+    }
+}
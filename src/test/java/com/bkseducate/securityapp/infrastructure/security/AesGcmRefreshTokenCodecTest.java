@@ -0,0 +1,104 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import com.bkseducate.securityapp.domain.model.StatelessRefreshToken;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Refresh tokens sin estado: ida y vuelta, y rechazo de tokens manipulados, de otra versión o de otra clave
+ */
+class AesGcmRefreshTokenCodecTest {
+    
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    
+    private final AesGcmRefreshTokenCodec codec = new AesGcmRefreshTokenCodec(true, "", SECRET);
+    
+    @Test
+    void issuedTokenDecodesToTheSameContent() {
+        UUID userId = UUID.randomUUID();
+        Instant expiresAt = Instant.now().plus(7, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS);
+        
+        String token = codec.issue(userId, 42, expiresAt);
+        Optional<StatelessRefreshToken> decoded = codec.decode(token);
+        
+        assertThat(token).hasSize(114).matches("[A-Za-z0-9_-]+");
+        assertThat(decoded).isPresent();
+        assertThat(decoded.get().userId()).isEqualTo(userId);
+        assertThat(decoded.get().sessionEpoch()).isEqualTo(42);
+        assertThat(decoded.get().expiresAt()).isEqualTo(expiresAt);
+        assertThat(decoded.get().issuedAt()).isBetween(Instant.now().minusSeconds(5), Instant.now());
+        assertThat(decoded.get().isExpired()).isFalse();
+    }
+    
+    @Test
+    void everyTokenHasItsOwnId() {
+        UUID userId = UUID.randomUUID();
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.DAYS);
+        
+        String first = codec.issue(userId, 0, expiresAt);
+        String second = codec.issue(userId, 0, expiresAt);
+        
+        assertThat(first).isNotEqualTo(second);
+        assertThat(codec.decode(first).get().tokenId()).isNotEqualTo(codec.decode(second).get().tokenId());
+    }
+    
+    @Test
+    void tamperedTokenIsRejected() {
+        byte[] raw = Base64.getUrlDecoder().decode(codec.issue(UUID.randomUUID(), 0, Instant.now().plusSeconds(60)));
+        
+        for (int position : new int[] {1, 20, raw.length - 1}) {
+            byte[] tampered = raw.clone();
+            tampered[position] ^= 0x01;
+            assertThat(codec.decode(encode(tampered))).as("byte %d alterado", position).isEmpty();
+        }
+    }
+    
+    @Test
+    void otherVersionIsRejected() {
+        byte[] raw = Base64.getUrlDecoder().decode(codec.issue(UUID.randomUUID(), 0, Instant.now().plusSeconds(60)));
+        raw[0] = 2;
+        
+        assertThat(codec.decode(encode(raw))).isEmpty();
+    }
+    
+    @Test
+    void tokenFromAnotherKeyIsRejected() {
+        AesGcmRefreshTokenCodec other = new AesGcmRefreshTokenCodec(true,
+            Base64.getEncoder().encodeToString(new byte[32]), SECRET);
+        
+        assertThat(codec.decode(other.issue(UUID.randomUUID(), 0, Instant.now().plusSeconds(60)))).isEmpty();
+    }
+    
+    @Test
+    void databaseTokensAndGarbageAreIgnored() {
+        assertThat(codec.decode(UUID.randomUUID().toString())).isEmpty();
+        assertThat(codec.decode(null)).isEmpty();
+        assertThat(codec.decode("*".repeat(114))).isEmpty();
+    }
+    
+    @Test
+    void disabledCodecDecodesNothing() {
+        AesGcmRefreshTokenCodec disabled = new AesGcmRefreshTokenCodec(false, "", SECRET);
+        
+        assertThat(disabled.decode(codec.issue(UUID.randomUUID(), 0, Instant.now().plusSeconds(60)))).isEmpty();
+    }
+    
+    @Test
+    void encryptionKeyMustBeAnAesKey() {
+        assertThatThrownBy(() -> new AesGcmRefreshTokenCodec(true,
+            Base64.getEncoder().encodeToString(new byte[20]), SECRET))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    private static String encode(byte[] raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+}
@@ -0,0 +1,102 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El minter debe producir exactamente el mismo token que el builder de jjwt
+ */
+class HmacAccessTokenMinterTest {
+    
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final long IAT = 1_760_000_000L;
+    private static final long EXP = IAT + 900;
+    
+    private final SecretKey secretKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    private final HmacAccessTokenMinter minter = new HmacAccessTokenMinter(secretKey);
+    
+    @Test
+    void standardTokenMatchesJjwtByteForByte() {
+        List<String> roles = List.of("ROLE_USER", "ROLE_ADMIN");
+        
+        String minted = minter.mintStandard("jti-1", "subject-1", "ana@example.com", roles, IAT, EXP);
+        
+        assertThat(minted).isEqualTo(jjwt("jti-1", "subject-1")
+            .claim("email", "ana@example.com")
+            .claim(JwtTokenService.CLAIM_ROLES, roles)
+            .issuedAt(new Date(IAT * 1000))
+            .expiration(new Date(EXP * 1000))
+            .compact());
+    }
+    
+    @Test
+    void escapingMatchesJackson() {
+        String email = "\"ñandú\"\\\t\n\u0001\u001B\u001F@example.com";
+        List<String> roles = List.of("ROLE_é", "ROLE_\"Q\"");
+        
+        String minted = minter.mintStandard("jti-2", "subject-2", email, roles, IAT, EXP);
+        
+        assertThat(minted).isEqualTo(jjwt("jti-2", "subject-2")
+            .claim("email", email)
+            .claim(JwtTokenService.CLAIM_ROLES, roles)
+            .issuedAt(new Date(IAT * 1000))
+            .expiration(new Date(EXP * 1000))
+            .compact());
+    }
+    
+    @Test
+    void compactTokenMatchesJjwtByteForByte() {
+        String minted = minter.mintCompact("jti-3", "subject-3", "a1b2c3", 0b1011L, IAT, EXP);
+        
+        assertThat(minted).isEqualTo(jjwt("jti-3", "subject-3")
+            .claim(JwtTokenService.CLAIM_ROLE_VERSION, "a1b2c3")
+            .claim(JwtTokenService.CLAIM_ROLE_MASK, 0b1011L)
+            .issuedAt(new Date(IAT * 1000))
+            .expiration(new Date(EXP * 1000))
+            .compact());
+    }
+    
+    @Test
+    void concurrentMintingSharesPooledMacsWithoutCorruptingSignatures() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                String subject = UUID.randomUUID().toString();
+                results.add(executor.submit(() -> minter.mintCompact("jti", subject, "v1", 1L, IAT, EXP)
+                    .equals(jjwt("jti", subject)
+                        .claim(JwtTokenService.CLAIM_ROLE_VERSION, "v1")
+                        .claim(JwtTokenService.CLAIM_ROLE_MASK, 1L)
+                        .issuedAt(new Date(IAT * 1000))
+                        .expiration(new Date(EXP * 1000))
+                        .compact())));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    private JwtBuilder jjwt(String tokenId, String subject) {
+        return Jwts.builder()
+            .id(tokenId)
+            .subject(subject)
+            .signWith(secretKey);
+    }
+}
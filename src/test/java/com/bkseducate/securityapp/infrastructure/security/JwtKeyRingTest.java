@@ -0,0 +1,139 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import com.bkseducate.securityapp.infrastructure.persistence.entity.SigningKeyEntity;
+import com.bkseducate.securityapp.infrastructure.persistence.repository.SigningKeyJpaRepository;
+import io.jsonwebtoken.security.PublicJwk;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Key ring sobre jwt_signing_keys: arranque, rotación, publicación previa, purga de retiradas y JWKS
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JwtKeyRingTest {
+    
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    
+    @Autowired
+    private SigningKeyJpaRepository repository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+    
+    @Test
+    void activeKeyBootstrapsAKeyPublishedInTheJwks() {
+        JwtKeyRing keyRing = keyRing(86_400_000, 1_800_000);
+        
+        JwtKeyRing.SigningKey active = keyRing.activeKey();
+        
+        assertThat(active.privateKey()).isNotNull();
+        assertThat(keyRing.verificationKey(active.kid())).isEqualTo(active.publicKey());
+        assertThat(kids(keyRing.publicJwks())).containsExactly(active.kid());
+        assertThat(repository.findAll()).singleElement()
+            .satisfies(key -> assertThat(key.getRetiredAt()).isNull());
+    }
+    
+    @Test
+    void rotationRetiresTheActiveKeyButKeepsItVerifying() {
+        JwtKeyRing keyRing = keyRing(0, 1_800_000);
+        JwtKeyRing.SigningKey first = keyRing.activeKey();
+        
+        keyRing.maintain();
+        
+        JwtKeyRing.SigningKey second = keyRing.activeKey();
+        assertThat(second.kid()).isNotEqualTo(first.kid());
+        assertThat(keyRing.verificationKey(first.kid())).isEqualTo(first.publicKey());
+        assertThat(kids(keyRing.publicJwks())).containsExactlyInAnyOrder(first.kid(), second.kid());
+        assertThat(repository.findById(first.kid())).get()
+            .satisfies(key -> assertThat(key.getRetiredAt()).isNotNull());
+    }
+    
+    @Test
+    void nextKeyIsPublishedInTheJwksBeforeItStartsSigning() throws InterruptedException {
+        // jwks-max-age 0 s + refresh-interval 300 ms: la siguiente clave se publica 300 ms antes de firmar
+        JwtKeyRing keyRing = keyRing(0, 1_800_000, 0, 300);
+        JwtKeyRing.SigningKey first = keyRing.activeKey();
+        
+        keyRing.maintain();
+        List<String> cachedJwks = kids(keyRing.publicJwks());
+        
+        assertThat(keyRing.activeKey().kid()).isEqualTo(first.kid());
+        assertThat(cachedJwks).hasSize(2).contains(first.kid());
+        
+        Thread.sleep(400);
+        keyRing.maintain();
+        
+        JwtKeyRing.SigningKey second = keyRing.activeKey();
+        assertThat(second.kid()).isNotEqualTo(first.kid());
+        assertThat(cachedJwks).contains(second.kid());
+        assertThat(repository.findById(first.kid())).get()
+            .satisfies(key -> assertThat(key.getRetiredAt()).isNotNull());
+        assertThat(repository.findById(second.kid())).get()
+            .satisfies(key -> assertThat(key.getRetiredAt()).isNull());
+    }
+    
+    @Test
+    void retiredKeysArePurgedAndUnpublishedAfterTheRetention() throws InterruptedException {
+        JwtKeyRing keyRing = keyRing(0, 1);
+        JwtKeyRing.SigningKey first = keyRing.activeKey();
+        keyRing.maintain();
+        
+        Thread.sleep(20);
+        keyRing.maintain();
+        
+        assertThat(repository.findById(first.kid())).isEmpty();
+        assertThat(kids(keyRing.publicJwks())).doesNotContain(first.kid());
+        assertThat(keyRing.verificationKey(first.kid())).isNull();
+    }
+    
+    @Test
+    void maintenanceRetiresDuplicateActiveKeysFromAConcurrentBootstrap() {
+        JwtKeyRing keyRing = keyRing(86_400_000, 1_800_000);
+        JwtKeyRing.SigningKey winner = keyRing.activeKey();
+        // Otro nodo insertó su clave activa a la vez, con la tabla vacía
+        SigningKeyEntity row = repository.findById(winner.kid()).orElseThrow();
+        repository.save(new SigningKeyEntity("other-node-key", row.getAlgorithm(), row.getPublicKey(),
+            row.getPrivateKey(), row.getCreatedAt().minusSeconds(1), row.getActivatesAt().minusSeconds(1), null));
+        
+        keyRing.maintain();
+        
+        assertThat(keyRing.activeKey().kid()).isEqualTo(winner.kid());
+        assertThat(repository.findAll())
+            .filteredOn(key -> key.getRetiredAt() == null)
+            .extracting(SigningKeyEntity::getKid)
+            .containsExactly(winner.kid());
+    }
+    
+    private JwtKeyRing keyRing(long rotationIntervalMillis, long retentionMillis) {
+        return keyRing(rotationIntervalMillis, retentionMillis, 0, 0);
+    }
+    
+    private JwtKeyRing keyRing(long rotationIntervalMillis, long retentionMillis,
+                               long jwksMaxAgeSeconds, long refreshIntervalMillis) {
+        return new JwtKeyRing(repository, transactionManager, "ES256", rotationIntervalMillis, retentionMillis,
+            jwksMaxAgeSeconds, refreshIntervalMillis, retentionMillis, SECRET);
+    }
+    
+    private static List<String> kids(List<PublicJwk<?>> jwks) {
+        return jwks.stream().map(PublicJwk::getId).toList();
+    }
+}
@@ -0,0 +1,136 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import com.bkseducate.securityapp.domain.exceptions.InvalidTokenException;
+import com.bkseducate.securityapp.domain.model.Role;
+import com.bkseducate.securityapp.domain.model.VerifiedAccessToken;
+import com.bkseducate.securityapp.domain.ports.RoleRepository;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Formato compacto de claims (rv + rm, sin email): ida y vuelta entre emisión y verificación
+ * con cambios de catálogo de roles
+ */
+class JwtTokenServiceTest {
+    
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    
+    private static final Role USER = Role.reconstruct(UUID.randomUUID(), "USER", "ROLE_USER");
+    private static final Role ADMIN = Role.reconstruct(UUID.randomUUID(), "ADMIN", "ROLE_ADMIN");
+    private static final Role AUDITOR = Role.reconstruct(UUID.randomUUID(), "AUDITOR", "ROLE_AUDITOR");
+    
+    private final UUID userId = UUID.randomUUID();
+    
+    @Test
+    void compactTokenOmitsTheEmailAndRoundTripsTheRoles() {
+        AuthorityRegistry registry = registry(mock(RoleRepository.class), USER, ADMIN);
+        JwtTokenService service = compactService(registry);
+        
+        String token = service.generateAccessToken(userId, "ana@test.com", Set.of(USER, ADMIN));
+        VerifiedAccessToken verified = service.verifyAccessToken(token);
+        
+        assertThat(payload(token))
+            .contains("\"" + JwtTokenService.CLAIM_ROLE_VERSION + "\"")
+            .contains("\"" + JwtTokenService.CLAIM_ROLE_MASK + "\"")
+            .doesNotContain("email")
+            .doesNotContain("\"" + JwtTokenService.CLAIM_ROLES + "\"");
+        assertThat(verified.userId()).isEqualTo(userId);
+        assertThat(verified.email()).isNull();
+        assertThat(service.extractEmail(token)).isNull();
+        assertThat(verified.roles()).containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+    
+    @Test
+    void roleOutsideTheCatalogFallsBackToTheStandardFormat() {
+        AuthorityRegistry registry = registry(mock(RoleRepository.class), USER);
+        JwtTokenService service = compactService(registry);
+        
+        String token = service.generateAccessToken(userId, "ana@test.com", Set.of(USER, ADMIN));
+        VerifiedAccessToken verified = service.verifyAccessToken(token);
+        
+        assertThat(payload(token)).doesNotContain("\"" + JwtTokenService.CLAIM_ROLE_MASK + "\"");
+        assertThat(verified.email()).isEqualTo("ana@test.com");
+        assertThat(verified.roles()).containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+    
+    @Test
+    void tokenMintedUnderAnOlderRoleLayoutDecodesWithThatLayout() {
+        AuthorityRegistry registry = registry(mock(RoleRepository.class), USER, ADMIN);
+        JwtTokenService service = compactService(registry);
+        // Layout [ROLE_ADMIN, ROLE_USER]: ROLE_USER es el bit 1
+        String oldToken = service.generateAccessToken(userId, null, Set.of(USER));
+        
+        // Layout [ROLE_ADMIN, ROLE_AUDITOR, ROLE_USER]: el bit 1 pasa a ser ROLE_AUDITOR
+        registry.load(List.of(USER, ADMIN, AUDITOR));
+        String newToken = service.generateAccessToken(userId, null, Set.of(USER));
+        
+        assertThat(service.verifyAccessToken(oldToken).roles()).containsExactly("ROLE_USER");
+        assertThat(service.verifyAccessToken(newToken).roles()).containsExactly("ROLE_USER");
+        assertThat(claim(oldToken, JwtTokenService.CLAIM_ROLE_VERSION))
+            .isNotEqualTo(claim(newToken, JwtTokenService.CLAIM_ROLE_VERSION));
+    }
+    
+    @Test
+    void unknownLayoutVersionReloadsTheCatalogOnceBeforeAccepting() {
+        String token = compactService(registry(mock(RoleRepository.class), USER, ADMIN))
+            .generateAccessToken(userId, null, Set.of(ADMIN));
+        // Otro nodo ya cargó el catálogo nuevo; este todavía tiene el anterior
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(USER, ADMIN));
+        JwtTokenService service = compactService(registry(roleRepository, USER));
+        
+        VerifiedAccessToken verified = service.verifyAccessToken(token);
+        
+        assertThat(verified.roles()).containsExactly("ROLE_ADMIN");
+        verify(roleRepository, times(1)).findAll();
+    }
+    
+    @Test
+    void unknownLayoutVersionIsRejectedAfterASingleReload() {
+        String token = compactService(registry(mock(RoleRepository.class), USER, ADMIN, AUDITOR))
+            .generateAccessToken(userId, null, Set.of(AUDITOR));
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll()).thenReturn(List.of(USER, ADMIN));
+        JwtTokenService service = compactService(registry(roleRepository, USER, ADMIN));
+        
+        assertThatThrownBy(() -> service.verifyAccessToken(token))
+            .isInstanceOf(InvalidTokenException.class);
+        // El segundo intento no vuelve a recargar dentro del intervalo
+        assertThatThrownBy(() -> service.verifyAccessToken(token))
+            .isInstanceOf(InvalidTokenException.class);
+        verify(roleRepository, times(1)).findAll();
+    }
+    
+    private static AuthorityRegistry registry(RoleRepository roleRepository, Role... catalog) {
+        AuthorityRegistry registry = new AuthorityRegistry(roleRepository);
+        registry.load(List.of(catalog));
+        return registry;
+    }
+    
+    private static JwtTokenService compactService(AuthorityRegistry registry) {
+        return new JwtTokenService(SECRET, 900_000L, new VerifiedTokenCache(false, 0), registry,
+            JwtKeyRing.disabled(), false, true);
+    }
+    
+    private static String payload(String token) {
+        return new String(Base64.getUrlDecoder().decode(token.split("\\.")[1]), StandardCharsets.UTF_8);
+    }
+    
+    private static String claim(String token, String name) {
+        String payload = payload(token);
+        int start = payload.indexOf("\"" + name + "\":\"") + name.length() + 4;
+        return payload.substring(start, payload.indexOf('"', start));
+    }
+}
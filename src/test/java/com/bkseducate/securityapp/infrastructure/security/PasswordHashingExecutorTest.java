@@ -0,0 +1,97 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pool de hashing: presupuesto de requests en espera y rechazos por tarea en executeAll
+ */
+class PasswordHashingExecutorTest {
+    
+    @Test
+    void budgetIsHalfTheTomcatThreadsWithPlatformThreads() {
+        assertThat(PasswordHashingExecutor.waitingRequestBudget(200, 0, false)).isEqualTo(100);
+    }
+    
+    @Test
+    void budgetIgnoresTomcatThreadsWithVirtualThreads() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        
+        assertThat(PasswordHashingExecutor.waitingRequestBudget(200, 0, true)).isEqualTo(cores * 17);
+        assertThat(PasswordHashingExecutor.waitingRequestBudget(200, 40, true)).isEqualTo(40);
+        assertThat(PasswordHashingExecutor.waitingRequestBudget(200, 40, false)).isEqualTo(40);
+    }
+    
+    @Test
+    void explicitThreadsAndQueueAboveTheBudgetFailAtStartup() {
+        assertThatThrownBy(() -> new PasswordHashingExecutor(4, 20, 16, 5000, 1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void executeAllReturnsResultsInOrder() {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(2, 4, 8, 5000, 1);
+        try {
+            List<Supplier<String>> tasks = List.of(() -> "a", () -> "b", () -> "c", () -> "d", () -> "e");
+            
+            assertThat(executor.executeAll(tasks)).containsExactly("a", "b", "c", "d", "e");
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    void executeAllFailsOnlyTheTasksRejectedBySaturatedPool() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, 2, 5000, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // Un hash en curso y otro en cola: el pool está lleno
+            CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> executor.execute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+                return true;
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> executor.execute(() -> true));
+            waitUntil(() -> executor.queueSize() == 1);
+            
+            List<String> saturated = executor.executeAll(List.of(() -> "a"));
+            release.countDown();
+            
+            assertThat(saturated).containsExactly((String) null);
+            assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(executor.executeAll(List.of(() -> "a", () -> "b"))).containsExactly("a", "b");
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void waitUntil(Supplier<Boolean> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.get()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condición no alcanzada");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
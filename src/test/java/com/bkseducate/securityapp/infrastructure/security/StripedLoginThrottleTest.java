@@ -0,0 +1,146 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import com.bkseducate.securityapp.domain.exceptions.TooManyLoginAttemptsException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Limitador de logins fallidos: reserva atómica de intentos, bloqueo al agotarlos, recuperación
+ * con el tiempo y memoria acotada
+ */
+class StripedLoginThrottleTest {
+    
+    private static final String IP = "203.0.113.7";
+    
+    @Test
+    void locksEmailOutAfterMaxFailuresWithRetryAfter() {
+        StripedLoginThrottle throttle = throttle(3, Duration.ofMinutes(1), 100, Duration.ofMinutes(1));
+        
+        for (int i = 0; i < 3; i++) {
+            assertThatCode(() -> throttle.acquire("ana@test.com", IP)).doesNotThrowAnyException();
+        }
+        
+        assertThatThrownBy(() -> throttle.acquire("ana@test.com", IP))
+            .isInstanceOfSatisfying(TooManyLoginAttemptsException.class,
+                ex -> assertThat(ex.getRetryAfterSeconds()).isBetween(1L, 60L));
+        assertThatCode(() -> throttle.acquire("luis@test.com", IP)).doesNotThrowAnyException();
+    }
+    
+    @Test
+    void emailKeyIsCaseAndWhitespaceInsensitive() {
+        StripedLoginThrottle throttle = throttle(2, Duration.ofMinutes(1), 100, Duration.ofMinutes(1));
+        
+        throttle.acquire("Ana@Test.com ", IP);
+        throttle.acquire(" ana@test.COM", IP);
+        
+        assertThatThrownBy(() -> throttle.acquire("ana@test.com", IP))
+            .isInstanceOf(TooManyLoginAttemptsException.class);
+    }
+    
+    @Test
+    void failuresDecayOneAttemptPerRefillPeriod() throws InterruptedException {
+        StripedLoginThrottle throttle = throttle(2, Duration.ofSeconds(1), 100, Duration.ofMinutes(1));
+        throttle.acquire("ana@test.com", null);
+        throttle.acquire("ana@test.com", null);
+        assertThatThrownBy(() -> throttle.acquire("ana@test.com", null))
+            .isInstanceOf(TooManyLoginAttemptsException.class);
+        
+        Thread.sleep(1200);
+        
+        // Solo se recuperó un intento: el siguiente vuelve a bloquear
+        assertThatCode(() -> throttle.acquire("ana@test.com", null)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> throttle.acquire("ana@test.com", null))
+            .isInstanceOf(TooManyLoginAttemptsException.class);
+    }
+    
+    @Test
+    void rejectedAttemptConsumesNothing() {
+        StripedLoginThrottle throttle = throttle(5, Duration.ofMinutes(1), 1, Duration.ofMinutes(1));
+        throttle.acquire("a@test.com", IP);
+        
+        // La IP está agotada: el intento que ya se había tomado del email se devuelve
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> throttle.acquire("b@test.com", IP))
+                .isInstanceOf(TooManyLoginAttemptsException.class);
+        }
+        
+        for (int i = 0; i < 5; i++) {
+            assertThatCode(() -> throttle.acquire("b@test.com", null)).doesNotThrowAnyException();
+        }
+    }
+    
+    @Test
+    void releasedAndSucceededAttemptsLeaveNoBuckets() {
+        StripedLoginThrottle throttle = throttle(5, Duration.ofMinutes(1), 100, Duration.ofMinutes(1));
+        
+        throttle.acquire("ana@test.com", IP);
+        throttle.release("ana@test.com", IP);
+        assertThat(throttle.trackedEntries()).isZero();
+        
+        throttle.acquire("ana@test.com", IP);
+        throttle.recordSuccess("ana@test.com", IP);
+        assertThat(throttle.trackedEntries()).isZero();
+    }
+    
+    @Test
+    void ipIsLockedOutAcrossEmails() {
+        StripedLoginThrottle throttle = throttle(5, Duration.ofMinutes(1), 3, Duration.ofMinutes(1));
+        
+        throttle.acquire("a@test.com", IP);
+        throttle.acquire("b@test.com", IP);
+        throttle.acquire("c@test.com", IP);
+        
+        assertThatThrownBy(() -> throttle.acquire("d@test.com", IP))
+            .isInstanceOf(TooManyLoginAttemptsException.class);
+        assertThatCode(() -> throttle.acquire("d@test.com", "198.51.100.1")).doesNotThrowAnyException();
+    }
+    
+    @Test
+    void successResetsTheEmailButKeepsPreviousIpFailures() {
+        StripedLoginThrottle throttle = throttle(2, Duration.ofMinutes(1), 2, Duration.ofMinutes(1));
+        throttle.acquire("ana@test.com", IP);
+        throttle.acquire("ana@test.com", IP);
+        
+        throttle.recordSuccess("ana@test.com", IP);
+        
+        assertThatCode(() -> throttle.acquire("ana@test.com", null)).doesNotThrowAnyException();
+        // Se devolvió solo el intento del login correcto: la IP conserva el fallo anterior
+        assertThatCode(() -> throttle.acquire("luis@test.com", IP)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> throttle.acquire("ana@test.com", IP))
+            .isInstanceOf(TooManyLoginAttemptsException.class);
+    }
+    
+    @Test
+    void trackedKeysAreBoundedByMaxEntries() {
+        StripedLoginThrottle throttle = new StripedLoginThrottle(true, 128,
+            5, Duration.ofMinutes(1), 50, Duration.ofMinutes(1));
+        
+        for (int i = 0; i < 10_000; i++) {
+            throttle.acquire("user" + i + "@test.com", null);
+        }
+        
+        assertThat(throttle.trackedEntries()).isLessThanOrEqualTo(128);
+    }
+    
+    @Test
+    void disabledThrottleNeverRejects() {
+        StripedLoginThrottle throttle = new StripedLoginThrottle(false, 100,
+            1, Duration.ofMinutes(1), 1, Duration.ofMinutes(1));
+        
+        throttle.acquire("ana@test.com", IP);
+        throttle.acquire("ana@test.com", IP);
+        
+        assertThatCode(() -> throttle.acquire("ana@test.com", IP)).doesNotThrowAnyException();
+        assertThat(throttle.trackedEntries()).isZero();
+    }
+    
+    private static StripedLoginThrottle throttle(int emailMaxFailures, Duration emailRefill,
+                                                 int ipMaxFailures, Duration ipRefill) {
+        return new StripedLoginThrottle(true, 50_000, emailMaxFailures, emailRefill, ipMaxFailures, ipRefill);
+    }
+}
@@ -0,0 +1,113 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pre-validación sin firma: estructura, alg/kid y exp
+ */
+class TokenPreValidatorTest {
+    
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    
+    private final SecretKey secretKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    private JwtTokenService tokenService;
+    private JwtKeyRing keyRing;
+    private TokenPreValidator validator;
+    
+    @BeforeEach
+    void setUp() {
+        tokenService = mock(JwtTokenService.class);
+        keyRing = mock(JwtKeyRing.class);
+        when(tokenService.acceptsHmacTokens()).thenReturn(true);
+        validator = new TokenPreValidator(tokenService, keyRing);
+    }
+    
+    @Test
+    void acceptsWellFormedUnexpiredHmacToken() {
+        assertThat(validator.check(hmacToken(60_000))).isEqualTo(PreValidationResult.ACCEPTED);
+    }
+    
+    @Test
+    void rejectsExpiredTokenWithoutVerifyingTheSignature() {
+        String expired = hmacToken(-60_000);
+        String tampered = expired.substring(0, expired.lastIndexOf('.') + 1) + "AAAA";
+        
+        assertThat(validator.check(expired)).isEqualTo(PreValidationResult.EXPIRED);
+        assertThat(validator.check(tampered)).isEqualTo(PreValidationResult.EXPIRED);
+    }
+    
+    @Test
+    void rejectsMalformedStructure() {
+        String token = hmacToken(60_000);
+        String[] parts = token.split("\\.");
+        
+        assertThat(validator.check(parts[0] + "." + parts[1])).isEqualTo(PreValidationResult.MALFORMED);
+        assertThat(validator.check(token + ".extra")).isEqualTo(PreValidationResult.MALFORMED);
+        assertThat(validator.check(parts[0] + ".." + parts[2])).isEqualTo(PreValidationResult.MALFORMED);
+        assertThat(validator.check(token + "=")).isEqualTo(PreValidationResult.MALFORMED);
+        assertThat(validator.check("a".repeat(8193))).isEqualTo(PreValidationResult.MALFORMED);
+        assertThat(validator.check(segment("{\"typ\":\"JWT\"}") + "." + parts[1] + "." + parts[2]))
+            .isEqualTo(PreValidationResult.MALFORMED);
+        assertThat(validator.check(parts[0] + "." + segment("{\"sub\":\"x\"}") + "." + parts[2]))
+            .isEqualTo(PreValidationResult.MALFORMED);
+    }
+    
+    @Test
+    void rejectsAlgorithmsNotAllowedByTheConfiguration() {
+        String[] parts = hmacToken(60_000).split("\\.");
+        
+        assertThat(validator.check(segment("{\"alg\":\"none\"}") + "." + parts[1] + "." + parts[2]))
+            .isEqualTo(PreValidationResult.UNSUPPORTED_ALGORITHM);
+        
+        when(tokenService.acceptsHmacTokens()).thenReturn(false);
+        assertThat(validator.check(hmacToken(60_000))).isEqualTo(PreValidationResult.UNSUPPORTED_ALGORITHM);
+    }
+    
+    @Test
+    void checksKidAgainstTheKeyRing() {
+        KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+        when(keyRing.algorithmId()).thenReturn("ES256");
+        when(keyRing.verificationKey("known")).thenReturn(keyPair.getPublic());
+        
+        assertThat(validator.check(es256Token(keyPair, "known"))).isEqualTo(PreValidationResult.ACCEPTED);
+        assertThat(validator.check(es256Token(keyPair, "unknown"))).isEqualTo(PreValidationResult.UNKNOWN_KEY);
+        
+        when(keyRing.algorithmId()).thenReturn("EdDSA");
+        assertThat(validator.check(es256Token(keyPair, "known")))
+            .isEqualTo(PreValidationResult.UNSUPPORTED_ALGORITHM);
+    }
+    
+    private String hmacToken(long expiresInMillis) {
+        return Jwts.builder()
+            .subject("user")
+            .expiration(new Date(System.currentTimeMillis() + expiresInMillis))
+            .signWith(secretKey)
+            .compact();
+    }
+    
+    private static String es256Token(KeyPair keyPair, String kid) {
+        return Jwts.builder()
+            .subject("user")
+            .expiration(new Date(System.currentTimeMillis() + 60_000))
+            .header().keyId(kid).and()
+            .signWith(keyPair.getPrivate(), Jwts.SIG.ES256)
+            .compact();
+    }
+    
+    private static String segment(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
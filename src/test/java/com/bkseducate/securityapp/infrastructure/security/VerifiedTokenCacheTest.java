@@ -0,0 +1,107 @@
+package com.bkseducate.securityapp.infrastructure.security;
+
+import com.bkseducate.securityapp.domain.model.VerifiedAccessToken;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Caché de tokens verificados: expiración, desalojo FIFO y coherencia de la cola de inserción
+ */
+class VerifiedTokenCacheTest {
+    
+    @Test
+    void getReturnsCachedTokenUntilItExpires() throws InterruptedException {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 10);
+        VerifiedAccessToken verified = verified(Instant.now().plusMillis(100));
+        
+        cache.put("token-a", verified);
+        
+        assertThat(cache.get("token-a")).isSameAs(verified);
+        Thread.sleep(150);
+        assertThat(cache.get("token-a")).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.expirationCount()).isEqualTo(1);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void putIgnoresTokensAlreadyExpired() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 10);
+        
+        cache.put("token-a", verified(Instant.now().minusSeconds(1)));
+        
+        assertThat(cache.size()).isZero();
+    }
+    
+    @Test
+    void evictsOldestEntryFirstWhenFull() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 2);
+        
+        cache.put("token-a", verified(inOneMinute()));
+        cache.put("token-b", verified(inOneMinute()));
+        cache.put("token-c", verified(inOneMinute()));
+        
+        assertThat(cache.get("token-a")).isNull();
+        assertThat(cache.get("token-b")).isNotNull();
+        assertThat(cache.get("token-c")).isNotNull();
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void staleQueueNodeOfInvalidatedKeyDoesNotEvictTheReaddedEntry() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 2);
+        cache.put("token-a", verified(inOneMinute()));
+        cache.invalidate("token-a");
+        VerifiedAccessToken readded = verified(inOneMinute());
+        cache.put("token-a", readded);
+        
+        // El nodo obsoleto de token-a es el más antiguo: se descarta sin tocar el mapa
+        cache.put("token-b", verified(inOneMinute()));
+        
+        assertThat(cache.get("token-a")).isSameAs(readded);
+        assertThat(cache.get("token-b")).isNotNull();
+        assertThat(cache.evictionCount()).isZero();
+    }
+    
+    @Test
+    void clearResetsTheInsertionQueue() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 2);
+        cache.put("token-a", verified(inOneMinute()));
+        cache.put("token-b", verified(inOneMinute()));
+        
+        cache.clear();
+        cache.put("token-c", verified(inOneMinute()));
+        cache.put("token-d", verified(inOneMinute()));
+        
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("token-c")).isNotNull();
+        assertThat(cache.get("token-d")).isNotNull();
+        assertThat(cache.evictionCount()).isZero();
+    }
+    
+    @Test
+    void disabledCacheStoresNothing() {
+        VerifiedTokenCache cache = VerifiedTokenCache.disabled();
+        
+        cache.put("token-a", verified(inOneMinute()));
+        
+        assertThat(cache.get("token-a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+    
+    private static Instant inOneMinute() {
+        return Instant.now().plusSeconds(60);
+    }
+    
+    private static VerifiedAccessToken verified(Instant expiresAt) {
+        return new VerifiedAccessToken(UUID.randomUUID(), "ana@test.com", Set.of("ROLE_USER"),
+            Instant.now(), expiresAt, UUID.randomUUID().toString());
+    }
+}